@@ -1,246 +1,331 @@
-package org.knime.io.other.anonymizer;
-
-import java.util.HashMap;
-import java.util.List;
-import java.util.UUID;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-
-import org.knime.core.data.DataCell;
-import org.knime.core.data.DataColumnSpecCreator;
-import org.knime.core.data.DataRow;
-import org.knime.core.data.DataTableSpec;
-import org.knime.core.data.DataType;
-import org.knime.core.data.container.ColumnRearranger;
-import org.knime.core.data.container.SingleCellFactory;
-import org.knime.core.data.def.StringCell;
-import org.knime.core.node.BufferedDataTable;
-import org.knime.core.node.ExecutionContext;
-import org.knime.core.node.InvalidSettingsException;
-import org.knime.core.node.NodeLogger;
-import org.knime.core.node.NodeSettingsRO;
-import org.knime.core.node.NodeSettingsWO;
-import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
-import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
-import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
-import org.knime.core.node.defaultnodesettings.SettingsModelString;
-import org.knime.core.node.streamable.simple.SimpleStreamableFunctionNodeModel;
-
-/**
- * This is the model implementation of Anonymizer. This node generates
- * universally unique identifier (UUID) tags or hash codes for each row in
- * selected columns.
- *
- * @author Rytis Kumpa
- */
-public class AnonymizerNodeModel extends SimpleStreamableFunctionNodeModel {
-
-	// the logger instance
-	private static final NodeLogger logger = NodeLogger.getLogger(AnonymizerNodeModel.class);
-
-	/*
-	 * the settings keys that are used to retrieve and store the settings from the
-	 * dialog or the settings file.
-	 */
-	static final String CFGKEY_SELECT = "Selected columns";
-	static final String CFGKEY_APPEND = "Append identifier";
-	static final String CFGKEY_FUNCTIONS = "Anonymization functions";
-	static final String CFGKEY_MAXVALUES = "Maximum number of unique values";
-
-	private final SettingsModelFilterString m_filter = new SettingsModelFilterString(AnonymizerNodeModel.CFGKEY_SELECT);
-	private final SettingsModelBoolean m_append = new SettingsModelBoolean(AnonymizerNodeModel.CFGKEY_APPEND,
-			Boolean.FALSE);
-	static final String m_warningMessage = "Incompatible anonymization function selected.";
-	private final SettingsModelString m_functions = new SettingsModelString(AnonymizerNodeModel.CFGKEY_FUNCTIONS,
-			m_warningMessage);
-	private final SettingsModelInteger m_maxUnique = new SettingsModelInteger(AnonymizerNodeModel.CFGKEY_MAXVALUES,
-			1000000);
-
-	// Message Digest class that provides Java hashing functions.
-	private MessageDigest m_messageDigest = null;
-
-	// If the UUID function is chosen, the string value of a column will be mapped
-	// to a specific UUID.
-	private HashMap<String, String> m_UUIDHashMap = null;
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
-
-		// Retrieve the values set by the user in the dialog panel
-		// m_includeList = m_filter.getIncludeList();
-		// m_anonymizationFunction = m_functions.getStringValue();
-		// m_appendBoolean = m_append.getBooleanValue();
-		// m_maxUniqueValues = m_maxUnique.getIntValue();
-
-		DataTableSpec inSpec = inSpecs[0];
-		ColumnRearranger columnRearranger = createColumnRearranger(inSpec);
-		return new DataTableSpec[] { columnRearranger.createSpec() };
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected ColumnRearranger createColumnRearranger(DataTableSpec spec) throws InvalidSettingsException {
-
-		// Retrieve the values set by the user in the dialog panel
-		List<String> m_includeList = m_filter.getIncludeList();
-		String m_anonymizationFunction = m_functions.getStringValue();
-		Boolean m_appendBoolean = m_append.getBooleanValue();
-		int m_maxUniqueValues = m_maxUnique.getIntValue();
-
-		ColumnRearranger columnRearranger = new ColumnRearranger(spec);
-
-		// Store the column indexes of the original data table for each selected include
-		// column.
-		HashMap<String, Integer> includeColumnIdX = new HashMap<String, Integer>();
-		for (String includeColumn : m_includeList) {
-			includeColumnIdX.put(includeColumn, columnRearranger.indexOf(includeColumn));
-		}
-
-		for (String includeColumn : m_includeList) {
-			int idX = columnRearranger.indexOf(includeColumn);
-			if (m_appendBoolean) {
-				String newColumnName = includeColumn + " (" + m_anonymizationFunction + ")";
-				DataColumnSpecCreator specCreator = new DataColumnSpecCreator(newColumnName, StringCell.TYPE);
-				columnRearranger.insertAt(idX + 1, new SingleCellFactory(specCreator.createSpec()) {
-
-					@Override
-					public DataCell getCell(DataRow row) {
-						DataCell cell = row.getCell(includeColumnIdX.get(includeColumn));
-						return anonymizeCell(cell, m_anonymizationFunction, m_UUIDHashMap, m_messageDigest,
-								m_maxUniqueValues);
-					}
-				});
-			} else {
-				DataColumnSpecCreator specCreator = new DataColumnSpecCreator(includeColumn, StringCell.TYPE);
-				columnRearranger.replace(new SingleCellFactory(specCreator.createSpec()) {
-
-					@Override
-					public DataCell getCell(DataRow row) {
-						DataCell cell = row.getCell(idX);
-						return anonymizeCell(cell, m_anonymizationFunction, m_UUIDHashMap, m_messageDigest,
-								m_maxUniqueValues);
-					}
-				}, idX);
-			}
-		}
-
-		return columnRearranger;
-	}
-
-
-	/**
-	 * This function anonymizes the input cell according to the anonymization
-	 * algorithm selected.
-	 * @param inputCell
-	 * @param m_anonymizationFunction
-	 * @param m_UUIDHashMap
-	 * @param m_maxUniqueValues
-	 * @return DataCell A DataCell with the anonymized content.
-	 */
-	private DataCell anonymizeCell(DataCell inputCell, String m_anonymizationFunction,
-			HashMap<String, String> m_UUIDHashMap, MessageDigest m_messageDigest, int m_maxUniqueValues) {
-
-		DataCell anonymizedCell = null;
-		if (!inputCell.isMissing()) {
-			// if UUID is selected, generate a UUID identifier and convert it into a
-			// StringCell
-			if (m_anonymizationFunction == "UUID") {
-				if (m_UUIDHashMap.containsKey(inputCell.toString())) {
-					anonymizedCell = new StringCell(m_UUIDHashMap.get(inputCell.toString()));
-				} else {
-					String newUUID = UUID.randomUUID().toString();
-					anonymizedCell = new StringCell(newUUID);
-					m_UUIDHashMap.put(inputCell.toString(), newUUID);
-					if (m_UUIDHashMap.size() > m_maxUniqueValues) {
-						throw new IllegalStateException("The amount of unique values that can be mapped to UUIDs has been reached. "
-								+ "Please try using another hashing function instead.");
-					}
-				}
-
-			} else {
-				// if a hashing algorithm is selected, hash the String value in the cell and
-				// convert the value into StringCell
-				byte[] newHash = m_messageDigest.digest(inputCell.toString().getBytes());
-				String hexString = javax.xml.bind.DatatypeConverter.printHexBinary(newHash);
-				anonymizedCell = new StringCell(hexString);
-			}
-		} else {
-			anonymizedCell = DataType.getMissingCell();
-		}
-		return anonymizedCell;
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected BufferedDataTable[] execute(BufferedDataTable[] inData, ExecutionContext exec) throws Exception {
-
-		String m_anonymizationFunction = m_functions.getStringValue();
-
-		// Creates a message digest instance if a hashing algorithm is selected.
-		if (m_anonymizationFunction != "UUID") {
-			if (m_messageDigest == null) {
-				try {
-					m_messageDigest = MessageDigest.getInstance(m_anonymizationFunction);
-				} catch (NoSuchAlgorithmException e) {
-					logger.info("Selected hashing algorithm unavailable.");
-				}
-			}
-		}
-
-		// Creates a new HashMap, where corresponding strings will be mapped to a
-		// specific UUID.
-		if (m_anonymizationFunction == "UUID") {
-			m_UUIDHashMap = new HashMap<String, String>();
-		}
-
-		BufferedDataTable in = inData[0];
-
-		ColumnRearranger r = createColumnRearranger(in.getDataTableSpec());
-		BufferedDataTable out = exec.createColumnRearrangeTable(in, r, exec);
-		return new BufferedDataTable[] { out };
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void saveSettingsTo(NodeSettingsWO settings) {
-		m_filter.saveSettingsTo(settings);
-		m_functions.saveSettingsTo(settings);
-		m_append.saveSettingsTo(settings);
-		m_maxUnique.saveSettingsTo(settings);
-
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void validateSettings(NodeSettingsRO settings) throws InvalidSettingsException {
-		m_filter.validateSettings(settings);
-		m_append.validateSettings(settings);
-		m_functions.validateSettings(settings);
-		m_maxUnique.validateSettings(settings);
-
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void loadValidatedSettingsFrom(NodeSettingsRO settings) throws InvalidSettingsException {
-		m_filter.loadSettingsFrom(settings);
-		m_append.loadSettingsFrom(settings);
-		m_functions.loadSettingsFrom(settings);
-		m_maxUnique.loadSettingsFrom(settings);
-
-	}
-
-}
+package org.knime.io.other.anonymizer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.container.ColumnRearranger;
+import org.knime.core.data.container.SingleCellFactory;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.core.node.streamable.simple.SimpleStreamableFunctionNodeModel;
+import org.knime.core.node.workflow.ICredentials;
+
+/**
+ * This is the model implementation of Anonymizer. This node generates
+ * universally unique identifier (UUID) tags or hash codes for each row in
+ * selected columns.
+ *
+ * @author Rytis Kumpa
+ */
+public class AnonymizerNodeModel extends SimpleStreamableFunctionNodeModel {
+
+	// the logger instance
+	private static final NodeLogger logger = NodeLogger.getLogger(AnonymizerNodeModel.class);
+
+	/*
+	 * the settings keys that are used to retrieve and store the settings from the
+	 * dialog or the settings file.
+	 */
+	static final String CFGKEY_SELECT = "Selected columns";
+	static final String CFGKEY_APPEND = "Append identifier";
+	static final String CFGKEY_FUNCTIONS = "Anonymization functions";
+	static final String CFGKEY_MAXVALUES = "Maximum number of unique values";
+	static final String CFGKEY_CREDENTIALS = "Secret credentials";
+
+	// the anonymization function that maps each value to a random UUID
+	static final String FUNCTION_UUID = "UUID";
+
+	// the anonymization function that maps each value to a UUID derived from a
+	// keyed hash
+	static final String FUNCTION_KEYED = "HMAC-SHA256";
+
+	private final SettingsModelFilterString m_filter = new SettingsModelFilterString(AnonymizerNodeModel.CFGKEY_SELECT);
+	private final SettingsModelBoolean m_append = new SettingsModelBoolean(AnonymizerNodeModel.CFGKEY_APPEND,
+			Boolean.FALSE);
+	static final String m_warningMessage = "Incompatible anonymization function selected.";
+	private final SettingsModelString m_functions = new SettingsModelString(AnonymizerNodeModel.CFGKEY_FUNCTIONS,
+			m_warningMessage);
+	private final SettingsModelInteger m_maxUnique = new SettingsModelInteger(AnonymizerNodeModel.CFGKEY_MAXVALUES,
+			1000000);
+	private final SettingsModelString m_credentials = new SettingsModelString(AnonymizerNodeModel.CFGKEY_CREDENTIALS,
+			"");
+
+	// If the UUID function is chosen, the string value of a column will be mapped
+	// to a specific UUID.
+	private UUIDDictionary m_UUIDDictionary = null;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
+
+		// Retrieve the values set by the user in the dialog panel
+		// m_includeList = m_filter.getIncludeList();
+		// m_anonymizationFunction = m_functions.getStringValue();
+		// m_appendBoolean = m_append.getBooleanValue();
+		// m_maxUniqueValues = m_maxUnique.getIntValue();
+
+		DataTableSpec inSpec = inSpecs[0];
+		ColumnRearranger columnRearranger = createColumnRearranger(inSpec);
+		return new DataTableSpec[] { columnRearranger.createSpec() };
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected ColumnRearranger createColumnRearranger(DataTableSpec spec) throws InvalidSettingsException {
+
+		// Retrieve the values set by the user in the dialog panel
+		List<String> m_includeList = m_filter.getIncludeList();
+		String m_anonymizationFunction = m_functions.getStringValue();
+		Boolean m_appendBoolean = m_append.getBooleanValue();
+
+		ColumnRearranger columnRearranger = new ColumnRearranger(spec);
+
+		// MessageDigest and Mac are not thread-safe, so each worker thread of the
+		// cell factories hashes with its own instance.
+		ThreadLocal<CellHasher> cellHashers = null;
+		if (FUNCTION_KEYED.equals(m_anonymizationFunction)) {
+			cellHashers = createCellHashers(m_anonymizationFunction, readSecret());
+		} else if (!FUNCTION_UUID.equals(m_anonymizationFunction)) {
+			cellHashers = createCellHashers(m_anonymizationFunction, null);
+		}
+
+		// Store the column indexes of the original data table for each selected include
+		// column.
+		HashMap<String, Integer> includeColumnIdX = new HashMap<String, Integer>();
+		for (String includeColumn : m_includeList) {
+			includeColumnIdX.put(includeColumn, columnRearranger.indexOf(includeColumn));
+		}
+
+		for (String includeColumn : m_includeList) {
+			int idX = columnRearranger.indexOf(includeColumn);
+			int inputIdX = includeColumnIdX.get(includeColumn);
+			if (m_appendBoolean) {
+				String newColumnName = includeColumn + " (" + m_anonymizationFunction + ")";
+				DataColumnSpecCreator specCreator = new DataColumnSpecCreator(newColumnName, StringCell.TYPE);
+				columnRearranger.insertAt(idX + 1, createCellFactory(specCreator.createSpec(), inputIdX,
+						m_anonymizationFunction, cellHashers));
+			} else {
+				DataColumnSpecCreator specCreator = new DataColumnSpecCreator(includeColumn, StringCell.TYPE);
+				columnRearranger.replace(createCellFactory(specCreator.createSpec(), inputIdX,
+						m_anonymizationFunction, cellHashers), idX);
+			}
+		}
+
+		return columnRearranger;
+	}
+
+	/**
+	 * Creates the cell factory for one selected column. The hashing functions,
+	 * keyed or not, are computed on several threads, the output keeps the order
+	 * of the rows. The UUID function is computed on one thread, since its mapping
+	 * is shared by all rows.
+	 * @param columnSpec
+	 * @param columnIdX The index of the selected column in the input table.
+	 * @param m_anonymizationFunction
+	 * @param cellHashers The cell hasher of each thread, null for the UUID
+	 *                    function.
+	 * @return SingleCellFactory The factory for the anonymized column.
+	 */
+	private SingleCellFactory createCellFactory(DataColumnSpec columnSpec, int columnIdX,
+			String m_anonymizationFunction, ThreadLocal<CellHasher> cellHashers) {
+
+		SingleCellFactory factory = new SingleCellFactory(columnSpec) {
+
+			@Override
+			public DataCell getCell(DataRow row) {
+				DataCell cell = row.getCell(columnIdX);
+				return anonymizeCell(cell, m_anonymizationFunction, m_UUIDDictionary,
+						cellHashers == null ? null : cellHashers.get());
+			}
+		};
+		factory.setParallelProcessing(cellHashers != null);
+		return factory;
+	}
+
+	/**
+	 * Checks that the hashing algorithm is available and provides a separate
+	 * cell hasher for each thread.
+	 * @param algorithm The name of the hashing algorithm.
+	 * @param secret The secret of the keyed hashing function, null for the
+	 *               others.
+	 * @return ThreadLocal The cell hasher of each thread.
+	 * @throws InvalidSettingsException If the algorithm is unavailable.
+	 */
+	private static ThreadLocal<CellHasher> createCellHashers(String algorithm, byte[] secret)
+			throws InvalidSettingsException {
+		try {
+			createCellHasher(algorithm, secret);
+		} catch (GeneralSecurityException e) {
+			logger.info("Selected hashing algorithm unavailable.");
+			throw new InvalidSettingsException("Selected hashing algorithm \"" + algorithm + "\" unavailable.");
+		}
+		return ThreadLocal.withInitial(() -> {
+			try {
+				return createCellHasher(algorithm, secret);
+			} catch (GeneralSecurityException e) {
+				throw new IllegalStateException("Selected hashing algorithm unavailable.", e);
+			}
+		});
+	}
+
+	private static CellHasher createCellHasher(String algorithm, byte[] secret) throws GeneralSecurityException {
+		return secret == null ? new CellHasher(algorithm) : new CellHasher(secret);
+	}
+
+	/**
+	 * Reads the secret of the keyed hashing function from the password of the
+	 * selected credentials flow variable.
+	 * @return byte[] The UTF-8 bytes of the secret.
+	 * @throws InvalidSettingsException If the credentials do not exist or have no
+	 *                                  password.
+	 */
+	private byte[] readSecret() throws InvalidSettingsException {
+		String credentialsName = m_credentials.getStringValue();
+		if (credentialsName == null || credentialsName.isEmpty()) {
+			throw new InvalidSettingsException("No credentials flow variable with the secret selected.");
+		}
+		ICredentials credentials;
+		try {
+			credentials = getCredentialsProvider().get(credentialsName);
+		} catch (IllegalArgumentException e) {
+			throw new InvalidSettingsException("The credentials \"" + credentialsName + "\" do not exist.");
+		}
+		String password = credentials.getPassword();
+		if (password == null || password.isEmpty()) {
+			throw new InvalidSettingsException("The credentials \"" + credentialsName + "\" have no password.");
+		}
+		return password.getBytes(StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * This function anonymizes the input cell according to the anonymization
+	 * algorithm selected.
+	 * @param inputCell
+	 * @param m_anonymizationFunction
+	 * @param uuidDictionary The UUIDs of the values seen so far, used by the UUID
+	 *                       function.
+	 * @param cellHasher The cell hasher of the current thread, null for the UUID
+	 *                   function.
+	 * @return DataCell A DataCell with the anonymized content.
+	 */
+	private DataCell anonymizeCell(DataCell inputCell, String m_anonymizationFunction,
+			UUIDDictionary uuidDictionary, CellHasher cellHasher) {
+
+		DataCell anonymizedCell = null;
+		if (!inputCell.isMissing()) {
+			// if UUID is selected, generate a UUID identifier and convert it into a
+			// StringCell
+			if (FUNCTION_UUID.equals(m_anonymizationFunction)) {
+				anonymizedCell = new StringCell(uuidDictionary.get(inputCell.toString()));
+
+			} else {
+				// if a hashing algorithm is selected, hash the String value in the cell and
+				// convert the value into StringCell
+				String value = inputCell instanceof StringValue ? ((StringValue) inputCell).getStringValue()
+						: inputCell.toString();
+				anonymizedCell = new StringCell(cellHasher.hash(value));
+			}
+		} else {
+			anonymizedCell = DataType.getMissingCell();
+		}
+		return anonymizedCell;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected BufferedDataTable[] execute(BufferedDataTable[] inData, ExecutionContext exec) throws Exception {
+
+		String m_anonymizationFunction = m_functions.getStringValue();
+
+		// Creates a new dictionary, where corresponding strings will be mapped to a
+		// specific UUID. The values beyond the memory limit are spilled to disk.
+		if (FUNCTION_UUID.equals(m_anonymizationFunction)) {
+			m_UUIDDictionary = new UUIDDictionary(m_maxUnique.getIntValue());
+		}
+
+		try {
+			BufferedDataTable in = inData[0];
+
+			ColumnRearranger r = createColumnRearranger(in.getDataTableSpec());
+			BufferedDataTable out = exec.createColumnRearrangeTable(in, r, exec);
+			return new BufferedDataTable[] { out };
+		} finally {
+			if (m_UUIDDictionary != null) {
+				m_UUIDDictionary.close();
+				m_UUIDDictionary = null;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void saveSettingsTo(NodeSettingsWO settings) {
+		m_filter.saveSettingsTo(settings);
+		m_functions.saveSettingsTo(settings);
+		m_append.saveSettingsTo(settings);
+		m_maxUnique.saveSettingsTo(settings);
+		m_credentials.saveSettingsTo(settings);
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void validateSettings(NodeSettingsRO settings) throws InvalidSettingsException {
+		m_filter.validateSettings(settings);
+		m_append.validateSettings(settings);
+		m_functions.validateSettings(settings);
+		m_maxUnique.validateSettings(settings);
+		// workflows saved before the keyed hash have no credentials
+		if (settings.containsKey(CFGKEY_CREDENTIALS)) {
+			m_credentials.validateSettings(settings);
+		}
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void loadValidatedSettingsFrom(NodeSettingsRO settings) throws InvalidSettingsException {
+		m_filter.loadSettingsFrom(settings);
+		m_append.loadSettingsFrom(settings);
+		m_functions.loadSettingsFrom(settings);
+		m_maxUnique.loadSettingsFrom(settings);
+		if (settings.containsKey(CFGKEY_CREDENTIALS)) {
+			m_credentials.loadSettingsFrom(settings);
+		} else {
+			m_credentials.setStringValue("");
+		}
+
+	}
+
+}
@@ -0,0 +1,169 @@
+package org.knime.io.other.anonymizer;
+
+import java.security.DigestException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Hashes the String values of cells into upper-case hex codes, or into
+ * UUID-formatted tokens with a keyed HMAC-SHA256. The value is encoded to UTF-8
+ * into a reused buffer, hashed into a reused array and encoded with a lookup
+ * table into a reused char array, so only the resulting String is allocated
+ * per value. An instance is not thread-safe, each thread needs its own.
+ *
+ * @author Rytis Kumpa
+ */
+final class CellHasher {
+
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	private static final char[] LOWER_HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+	// the unkeyed hashing function, null for the keyed one
+	private final MessageDigest m_messageDigest;
+
+	// the keyed hashing function, null for the unkeyed one
+	private final Mac m_mac;
+
+	// the UTF-8 bytes of the current value, grown as needed
+	private byte[] m_bytes = new byte[64];
+
+	private final byte[] m_hash;
+
+	private final char[] m_hex;
+
+	/**
+	 * @param algorithm The name of the hashing algorithm.
+	 * @throws NoSuchAlgorithmException If the algorithm is unavailable.
+	 */
+	CellHasher(String algorithm) throws NoSuchAlgorithmException {
+		m_messageDigest = MessageDigest.getInstance(algorithm);
+		m_mac = null;
+		m_hash = new byte[m_messageDigest.getDigestLength()];
+		m_hex = new char[m_hash.length * 2];
+	}
+
+	/**
+	 * Creates a keyed hasher, whose tokens are the same for the same value and
+	 * secret, but cannot be recomputed without the secret.
+	 * @param secret The secret key of the HMAC.
+	 * @throws GeneralSecurityException If HMAC-SHA256 is unavailable or the key
+	 *                                  is invalid.
+	 */
+	CellHasher(byte[] secret) throws GeneralSecurityException {
+		m_messageDigest = null;
+		m_mac = Mac.getInstance(HMAC_ALGORITHM);
+		m_mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+		m_hash = new byte[m_mac.getMacLength()];
+		m_hex = new char[36];
+	}
+
+	/**
+	 * @param value The value to hash.
+	 * @return String The upper-case hex code of the hash of the UTF-8 bytes of the
+	 *         value, or the UUID-formatted token of the keyed hash.
+	 */
+	String hash(String value) {
+
+		digest(value);
+		if (m_mac != null) {
+			return formatUUID();
+		}
+		for (int i = 0; i < m_hash.length; i++) {
+			m_hex[2 * i] = HEX_DIGITS[(m_hash[i] >> 4) & 0xF];
+			m_hex[2 * i + 1] = HEX_DIGITS[m_hash[i] & 0xF];
+		}
+		return new String(m_hex);
+	}
+
+	/**
+	 * @param value The value to hash.
+	 * @return byte[] The hash of the UTF-8 bytes of the value, the array is reused
+	 *         by the next call.
+	 */
+	byte[] digest(String value) {
+
+		int length = encodeUtf8(value);
+		try {
+			if (m_mac != null) {
+				m_mac.update(m_bytes, 0, length);
+				m_mac.doFinal(m_hash, 0);
+			} else {
+				m_messageDigest.update(m_bytes, 0, length);
+				m_messageDigest.digest(m_hash, 0, m_hash.length);
+			}
+		} catch (DigestException | ShortBufferException e) {
+			throw new IllegalStateException("The hash could not be computed.", e);
+		}
+		return m_hash;
+	}
+
+	/**
+	 * Formats the first 16 bytes of the hash like {@link java.util.UUID#toString()}.
+	 * The version is set to 8, the custom UUID version of RFC 9562, and the
+	 * variant to the one of RFC 4122, so the token is a valid UUID.
+	 * @return String The token.
+	 */
+	private String formatUUID() {
+
+		m_hash[6] = (byte) ((m_hash[6] & 0x0F) | 0x80);
+		m_hash[8] = (byte) ((m_hash[8] & 0x3F) | 0x80);
+		int n = 0;
+		for (int i = 0; i < 16; i++) {
+			if (i == 4 || i == 6 || i == 8 || i == 10) {
+				m_hex[n++] = '-';
+			}
+			m_hex[n++] = LOWER_HEX_DIGITS[(m_hash[i] >> 4) & 0xF];
+			m_hex[n++] = LOWER_HEX_DIGITS[m_hash[i] & 0xF];
+		}
+		return new String(m_hex);
+	}
+
+	/**
+	 * Encodes the value to UTF-8 into the reused buffer. An unpaired surrogate is
+	 * encoded as '?', like {@link String#getBytes(java.nio.charset.Charset)} does.
+	 * @param value The value to encode.
+	 * @return int The number of bytes of the encoded value.
+	 */
+	private int encodeUtf8(String value) {
+
+		int length = value.length();
+		// a char takes at most three bytes, a surrogate pair four
+		if (m_bytes.length < length * 3) {
+			m_bytes = new byte[Math.max(length * 3, m_bytes.length * 2)];
+		}
+		byte[] bytes = m_bytes;
+		int n = 0;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				bytes[n++] = (byte) c;
+			} else if (c < 0x800) {
+				bytes[n++] = (byte) (0xC0 | (c >> 6));
+				bytes[n++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+					int codePoint = Character.toCodePoint(c, value.charAt(++i));
+					bytes[n++] = (byte) (0xF0 | (codePoint >> 18));
+					bytes[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+					bytes[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+					bytes[n++] = (byte) (0x80 | (codePoint & 0x3F));
+				} else {
+					bytes[n++] = (byte) '?';
+				}
+			} else {
+				bytes[n++] = (byte) (0xE0 | (c >> 12));
+				bytes[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				bytes[n++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		return n;
+	}
+}
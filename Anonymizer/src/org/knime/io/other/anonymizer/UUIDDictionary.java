@@ -0,0 +1,266 @@
+package org.knime.io.other.anonymizer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.knime.core.util.FileUtil;
+
+/**
+ * Maps each distinct value to a random UUID. The most recently used values are
+ * kept in memory, the others are spilled to a memory-mapped open-addressing
+ * hash table in a temporary file, so the number of distinct values is not
+ * limited by the memory. On disk, a value is represented by its SHA-256 hash
+ * truncated to 128 bits and its UUID by its 16 bytes, so each entry takes 32
+ * bytes. The original values are not stored: two values share a UUID only if
+ * their fingerprints collide, which is negligible even for billions of values,
+ * and unlike with MD5 no colliding values are known that could be planted in
+ * the data. The file is only created once the values do not fit into the
+ * memory, in the temporary directory of the workflow. An instance is not
+ * thread-safe.
+ *
+ * @author Rytis Kumpa
+ */
+final class UUIDDictionary implements Closeable {
+
+	private static final int SLOT_BYTES = 32;
+
+	// each mapped segment of the file holds 2^25 slots, i.e. 1 GiB
+	private static final int SEGMENT_SHIFT = 25;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+	private static final long INITIAL_CAPACITY = 1L << 20;
+
+	/**
+	 * The UUID of a value in memory, and whether it is already in the file.
+	 */
+	private static final class Entry {
+
+		private final long m_msb;
+		private final long m_lsb;
+		private final boolean m_stored;
+
+		private Entry(long msb, long lsb, boolean stored) {
+			m_msb = msb;
+			m_lsb = lsb;
+			m_stored = stored;
+		}
+	}
+
+	private final LinkedHashMap<String, Entry> m_cache;
+
+	private final CellHasher m_fingerprints;
+
+	// the fingerprint of the last value, set by fingerprint(String)
+	private long m_high;
+	private long m_low;
+
+	private File m_file = null;
+	private RandomAccessFile m_randomAccessFile = null;
+	private MappedByteBuffer[] m_segments = null;
+
+	// the number of slots of the file, a power of two
+	private long m_capacity = 0;
+
+	// the number of entries in the file
+	private long m_size = 0;
+
+	/**
+	 * @param cacheSize The number of values kept in memory.
+	 */
+	UUIDDictionary(int cacheSize) {
+		m_cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				if (size() <= Math.max(cacheSize, 1)) {
+					return false;
+				}
+				if (!eldest.getValue().m_stored) {
+					try {
+						store(eldest.getKey(), eldest.getValue());
+					} catch (IOException e) {
+						throw new UncheckedIOException("The UUID dictionary could not be written to disk.", e);
+					}
+				}
+				return true;
+			}
+		};
+		try {
+			m_fingerprints = new CellHasher("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is unavailable.", e);
+		}
+	}
+
+	/**
+	 * @param value The value to anonymize.
+	 * @return String The UUID of the value, a new random one for a value that was
+	 *         not seen before.
+	 * @throws UncheckedIOException If the file cannot be written.
+	 */
+	String get(String value) {
+
+		Entry entry = m_cache.get(value);
+		if (entry == null) {
+			entry = m_segments == null ? null : load(value);
+			if (entry == null) {
+				UUID uuid = UUID.randomUUID();
+				entry = new Entry(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), false);
+			}
+			m_cache.put(value, entry);
+		}
+		return new UUID(entry.m_msb, entry.m_lsb).toString();
+	}
+
+	/**
+	 * Deletes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		m_cache.clear();
+		m_segments = null;
+		if (m_randomAccessFile != null) {
+			m_randomAccessFile.close();
+			m_randomAccessFile = null;
+			// a mapped file cannot be deleted on some platforms until the mapping is
+			// garbage collected
+			if (!m_file.delete()) {
+				m_file.deleteOnExit();
+			}
+		}
+	}
+
+	private Entry load(String value) {
+
+		fingerprint(value);
+		long slot = findSlot(m_high, m_low);
+		if (isEmpty(slot)) {
+			return null;
+		}
+		return new Entry(getLong(slot, 16), getLong(slot, 24), true);
+	}
+
+	private void store(String value, Entry entry) throws IOException {
+
+		if (m_segments == null) {
+			m_capacity = INITIAL_CAPACITY;
+			m_segments = createFile(m_capacity);
+		} else if (2 * (m_size + 1) > m_capacity) {
+			grow();
+		}
+		fingerprint(value);
+		long slot = findSlot(m_high, m_low);
+		if (isEmpty(slot)) {
+			putSlot(slot, m_high, m_low, entry.m_msb, entry.m_lsb);
+			m_size++;
+		}
+	}
+
+	/**
+	 * Doubles the number of slots, the entries are inserted into a new file.
+	 */
+	private void grow() throws IOException {
+
+		File oldFile = m_file;
+		RandomAccessFile oldRandomAccessFile = m_randomAccessFile;
+		MappedByteBuffer[] oldSegments = m_segments;
+		long oldCapacity = m_capacity;
+
+		m_capacity = 2 * oldCapacity;
+		m_segments = createFile(m_capacity);
+		for (long oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+			MappedByteBuffer segment = oldSegments[(int) (oldSlot >>> SEGMENT_SHIFT)];
+			int position = (int) ((oldSlot & SEGMENT_MASK) * SLOT_BYTES);
+			long high = segment.getLong(position);
+			long low = segment.getLong(position + 8);
+			if (high != 0 || low != 0) {
+				putSlot(findSlot(high, low), high, low, segment.getLong(position + 16),
+						segment.getLong(position + 24));
+			}
+		}
+
+		oldRandomAccessFile.close();
+		if (!oldFile.delete()) {
+			oldFile.deleteOnExit();
+		}
+	}
+
+	private MappedByteBuffer[] createFile(long capacity) throws IOException {
+
+		m_file = FileUtil.createTempFile("uuid-dictionary", ".bin");
+		m_file.deleteOnExit();
+		m_randomAccessFile = new RandomAccessFile(m_file, "rw");
+		long length = capacity * SLOT_BYTES;
+		m_randomAccessFile.setLength(length);
+		long segmentBytes = (SEGMENT_MASK + 1) * SLOT_BYTES;
+		MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((length + segmentBytes - 1) / segmentBytes)];
+		FileChannel channel = m_randomAccessFile.getChannel();
+		for (int i = 0; i < segments.length; i++) {
+			long start = i * segmentBytes;
+			segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(segmentBytes, length - start));
+		}
+		return segments;
+	}
+
+	/**
+	 * Computes the fingerprint of the value into m_high and m_low, the first 16
+	 * bytes of its SHA-256 hash. The all-zero fingerprint marks an empty slot, so
+	 * it is mapped to another one.
+	 */
+	private void fingerprint(String value) {
+
+		byte[] hash = m_fingerprints.digest(value);
+		long high = 0;
+		long low = 0;
+		for (int i = 0; i < 8; i++) {
+			high = (high << 8) | (hash[i] & 0xFF);
+			low = (low << 8) | (hash[i + 8] & 0xFF);
+		}
+		m_high = high;
+		m_low = high == 0 && low == 0 ? 1 : low;
+	}
+
+	/**
+	 * Probes the slots linearly, starting at the slot given by the fingerprint.
+	 * @return long The slot with the fingerprint, or the empty slot it belongs to.
+	 */
+	private long findSlot(long high, long low) {
+
+		long mask = m_capacity - 1;
+		long slot = high & mask;
+		while (!isEmpty(slot) && (getLong(slot, 0) != high || getLong(slot, 8) != low)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private boolean isEmpty(long slot) {
+		return getLong(slot, 0) == 0 && getLong(slot, 8) == 0;
+	}
+
+	private long getLong(long slot, int offset) {
+		return m_segments[(int) (slot >>> SEGMENT_SHIFT)].getLong((int) ((slot & SEGMENT_MASK) * SLOT_BYTES) + offset);
+	}
+
+	private void putSlot(long slot, long high, long low, long msb, long lsb) {
+
+		MappedByteBuffer segment = m_segments[(int) (slot >>> SEGMENT_SHIFT)];
+		int position = (int) ((slot & SEGMENT_MASK) * SLOT_BYTES);
+		segment.putLong(position, high);
+		segment.putLong(position + 8, low);
+		segment.putLong(position + 16, msb);
+		segment.putLong(position + 24, lsb);
+	}
+}
@@ -0,0 +1,94 @@
+package org.knime.clustervalidity;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
+import org.knime.core.node.defaultnodesettings.DialogComponentColumnFilter;
+import org.knime.core.node.defaultnodesettings.DialogComponentColumnNameSelection;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumberEdit;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelColumnName;
+import org.knime.core.node.defaultnodesettings.SettingsModelDoubleBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
+
+/**
+ * <code>NodeDialog</code> for the "ClusterValidity" Node.
+ * This node computes several cluster validity indices from shared scans over a dataset.
+ *
+ * This node dialog derives from {@link DefaultNodeSettingsPane} which allows
+ * creation of a simple dialog with standard components. If you need a more
+ * complex dialog please derive directly from
+ * {@link org.knime.core.node.NodeDialogPane}.
+ *
+ * @author Rytis Kumpa
+ */
+public class ClusterValidityNodeDialog extends DefaultNodeSettingsPane {
+
+    /**
+     * New pane for configuring ClusterValidity node dialog.
+     */
+	@SuppressWarnings("unchecked")
+	protected ClusterValidityNodeDialog() {
+        super();
+        addDialogComponent(new DialogComponentColumnFilter(
+				new SettingsModelFilterString(ClusterValidityNodeModel.CFGKEY_FILTER), 0, false, DoubleValue.class));
+
+		final String columnSelectLabel = "Column with cluster names:";
+		addDialogComponent(new DialogComponentColumnNameSelection(
+				new SettingsModelColumnName(ClusterValidityNodeModel.CFGKEY_CLUSTER, ""), columnSelectLabel, 0,
+				StringValue.class));
+
+		createNewGroup("Indices");
+		addDialogComponent(new DialogComponentBoolean(
+				new SettingsModelBoolean(ClusterValidityNodeModel.CFGKEY_DAVIES_BOULDIN, true),
+				"Davies-Bouldin index"));
+		addDialogComponent(new DialogComponentBoolean(
+				new SettingsModelBoolean(ClusterValidityNodeModel.CFGKEY_CALINSKI_HARABASZ, true),
+				"Calinski-Harabasz index"));
+		addDialogComponent(new DialogComponentBoolean(
+				new SettingsModelBoolean(ClusterValidityNodeModel.CFGKEY_DUNN, true), "Dunn index"));
+		addDialogComponent(new DialogComponentBoolean(
+				new SettingsModelBoolean(ClusterValidityNodeModel.CFGKEY_SILHOUETTE, true), "Simplified silhouette"));
+		addDialogComponent(new DialogComponentBoolean(
+				new SettingsModelBoolean(ClusterValidityNodeModel.CFGKEY_SSE, true), "Sum of squared errors"));
+		closeCurrentGroup();
+
+		final String randomSamplingLabel = "Randomly sample a subset";
+		final SettingsModelBoolean m_randomSampling = new SettingsModelBoolean(ClusterValidityNodeModel.CFGKEY_RANDOM,
+				false);
+		addDialogComponent(new DialogComponentBoolean(m_randomSampling, randomSamplingLabel));
+
+		final String sampleSizeLabel = "Size of the sample:";
+		final SettingsModelDoubleBounded m_sampleRate = new SettingsModelDoubleBounded(
+				ClusterValidityNodeModel.CFGKEY_SAMPLERATE, 0.5, 0.001, 1.0);
+		addDialogComponent(new DialogComponentNumber(m_sampleRate, sampleSizeLabel, 0.1));
+
+		final String randomStateTitle = "Random seed:";
+		final SettingsModelInteger m_randomState = new SettingsModelInteger(ClusterValidityNodeModel.CFGKEY_STATE, 0);
+		addDialogComponent(new DialogComponentNumberEdit(m_randomState, randomStateTitle));
+
+		final String threadsLabel = "Number of threads:";
+		addDialogComponent(new DialogComponentNumber(
+				new SettingsModelIntegerBounded(ClusterValidityNodeModel.CFGKEY_THREADS,
+						Runtime.getRuntime().availableProcessors(), 1, Integer.MAX_VALUE),
+				threadsLabel, 1));
+
+		m_sampleRate.setEnabled(false);
+		m_randomState.setEnabled(false);
+		m_randomSampling.addChangeListener(new ChangeListener() {
+
+			@Override
+			public void stateChanged(ChangeEvent arg0) {
+				m_sampleRate.setEnabled(m_randomSampling.getBooleanValue());
+				m_randomState.setEnabled(m_randomSampling.getBooleanValue());
+			}
+		});
+    }
+}
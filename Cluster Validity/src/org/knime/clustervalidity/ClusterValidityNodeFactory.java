@@ -0,0 +1,58 @@
+package org.knime.clustervalidity;
+
+import org.knime.core.node.NodeDialogPane;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeView;
+
+/**
+ * <code>NodeFactory</code> for the "ClusterValidity" Node.
+ * This node computes several cluster validity indices from shared scans over a dataset.
+ *
+ * @author Rytis Kumpa
+ */
+public class ClusterValidityNodeFactory 
+        extends NodeFactory<ClusterValidityNodeModel> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ClusterValidityNodeModel createNodeModel() {
+        return new ClusterValidityNodeModel();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getNrNodeViews() {
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public NodeView<ClusterValidityNodeModel> createNodeView(final int viewIndex,
+            final ClusterValidityNodeModel nodeModel) {
+        return null; //new ClusterValidityNodeView(nodeModel);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasDialog() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public NodeDialogPane createNodeDialogPane() {
+        return new ClusterValidityNodeDialog();
+    }
+
+}
+
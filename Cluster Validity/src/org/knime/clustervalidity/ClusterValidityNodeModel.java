@@ -0,0 +1,382 @@
+package org.knime.clustervalidity;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelColumnName;
+import org.knime.core.node.defaultnodesettings.SettingsModelDoubleBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.util.ThreadPool;
+import org.knime.other.ClusterLabels;
+import org.knime.other.ClusterMoments;
+import org.knime.other.ClusterStatistics;
+import org.knime.other.ParallelScan;
+
+/**
+ * This is the model implementation of Cluster Validity. This node computes a
+ * selected set of cluster validity indices from shared scans over the data:
+ * the first scan collects the size, centroid and squared deviations of each
+ * cluster, the second scan, which is only needed for some indices, the
+ * distances of the points to the centroids. The scans and the per-cluster
+ * moments are shared with the Davies-Bouldin Index node, the simplified
+ * silhouette with the Silhouette Coefficient node.
+ *
+ * @author Rytis Kumpa
+ */
+public class ClusterValidityNodeModel extends NodeModel {
+
+	// Configuration keys for retrieving the settings values
+	static final String CFGKEY_FILTER = "Include columns";
+	static final String CFGKEY_CLUSTER = "Cluster allocation";
+	static final String CFGKEY_RANDOM = "Random sampling";
+	static final String CFGKEY_SAMPLERATE = "Sample rate";
+	static final String CFGKEY_STATE = "Random state";
+	static final String CFGKEY_THREADS = "Number of threads";
+	static final String CFGKEY_DAVIES_BOULDIN = "Davies-Bouldin index";
+	static final String CFGKEY_CALINSKI_HARABASZ = "Calinski-Harabasz index";
+	static final String CFGKEY_DUNN = "Dunn index";
+	static final String CFGKEY_SILHOUETTE = "Simplified silhouette";
+	static final String CFGKEY_SSE = "Sum of squared errors";
+
+	// Settings models
+	private final SettingsModelColumnName m_clusterColumn = new SettingsModelColumnName(CFGKEY_CLUSTER, "");
+
+	private final SettingsModelFilterString m_filterColumns = new SettingsModelFilterString(CFGKEY_FILTER);
+
+	private final SettingsModelBoolean m_randomSampling = new SettingsModelBoolean(CFGKEY_RANDOM, false);
+
+	private final SettingsModelDoubleBounded m_sampleRate = new SettingsModelDoubleBounded(CFGKEY_SAMPLERATE, 0.5, 0.0,
+			1.0);
+
+	private final SettingsModelInteger m_randomState = new SettingsModelInteger(CFGKEY_STATE, 0);
+
+	private final SettingsModelIntegerBounded m_threads = new SettingsModelIntegerBounded(CFGKEY_THREADS,
+			Runtime.getRuntime().availableProcessors(), 1, Integer.MAX_VALUE);
+
+	private final SettingsModelBoolean m_daviesBouldin = new SettingsModelBoolean(CFGKEY_DAVIES_BOULDIN, true);
+
+	private final SettingsModelBoolean m_calinskiHarabasz = new SettingsModelBoolean(CFGKEY_CALINSKI_HARABASZ, true);
+
+	private final SettingsModelBoolean m_dunn = new SettingsModelBoolean(CFGKEY_DUNN, true);
+
+	private final SettingsModelBoolean m_silhouette = new SettingsModelBoolean(CFGKEY_SILHOUETTE, true);
+
+	private final SettingsModelBoolean m_sse = new SettingsModelBoolean(CFGKEY_SSE, true);
+
+	/**
+	 * Constructor for the node model.
+	 */
+	protected ClusterValidityNodeModel() {
+		super(1, 1);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected BufferedDataTable[] execute(final BufferedDataTable[] inData, final ExecutionContext exec)
+			throws Exception {
+
+		BufferedDataTable table = inData[0];
+		DataTableSpec inTableSpec = table.getDataTableSpec();
+
+		DataTableSpec outTableSpec = configure(new DataTableSpec[] { inTableSpec })[0];
+
+		BufferedDataContainer outputContainer = exec.createDataContainer(outTableSpec);
+
+		int clusterNameColumnID = inTableSpec.columnsToIndices(m_clusterColumn.getStringValue())[0];
+		int[] includeColumnID = inTableSpec
+				.columnsToIndices((String[]) m_filterColumns.getIncludeList().stream().toArray(String[]::new));
+		int dimensions = includeColumnID.length;
+		ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(m_threads.getIntValue());
+
+		// The second scan is only needed for the indices that use the distances
+		// of the points to the centroids.
+		boolean distanceScan = m_daviesBouldin.getBooleanValue() || m_dunn.getBooleanValue()
+				|| m_silhouette.getBooleanValue();
+		double scans = distanceScan ? 2.0 : 1.0;
+
+		ClusterLabels labels = new ClusterLabels();
+		ClusterMoments centroids;
+		double[] point = new double[dimensions];
+		double size = table.size();
+		long i = 0;
+		long skipped = 0;
+
+		// First scan: the size, centroid and squared deviations of each cluster.
+		Random rand = new Random(m_randomState.getIntValue());
+		try (ParallelScan<ClusterMoments> scan = new ParallelScan<ClusterMoments>(pool, dimensions,
+				() -> new ClusterMoments(dimensions, labels),
+				(partial, clusters, points, chunkSize) -> partial.add(clusters[0], points, chunkSize))) {
+			for (DataRow row : table) {
+				exec.checkCanceled();
+				exec.setProgress(i++ / size / scans, "Computing cluster centroids.");
+				if (isSampled(rand)) {
+					if (readPoint(row, clusterNameColumnID, includeColumnID, point)) {
+						scan.add(labels.intern(row.getCell(clusterNameColumnID).toString()), point);
+					} else {
+						skipped++;
+					}
+				}
+			}
+			List<ClusterMoments> partials = scan.finish();
+			centroids = partials.get(0);
+			for (int t = 1; t < partials.size(); t++) {
+				centroids.merge(partials.get(t));
+			}
+		}
+
+		if (labels.size() < 2) {
+			throw new Exception("There have to be at least two clusters for the indices to be computed.");
+		}
+		if (skipped > 0) {
+			setWarningMessage(skipped + " rows with a missing cluster or a missing or NaN coordinate were skipped.");
+		}
+
+		// Second scan: the distances of the points to the centroids. The random
+		// generator is reset, so exactly the same rows are sampled again.
+		DistanceStatistics distances = null;
+		if (distanceScan) {
+			rand = new Random(m_randomState.getIntValue());
+			i = 0;
+			boolean silhouette = m_silhouette.getBooleanValue();
+			try (ParallelScan<DistanceStatistics> scan = new ParallelScan<DistanceStatistics>(pool, dimensions,
+					DistanceStatistics.createFactory(centroids, silhouette),
+					(partial, clusters, points, chunkSize) -> partial.add(clusters[0], points, chunkSize))) {
+				for (DataRow row : table) {
+					exec.checkCanceled();
+					exec.setProgress(0.5 + i++ / size * 0.5, "Computing distances to the centroids.");
+					// The same rows as in the first scan are skipped.
+					if (isSampled(rand) && readPoint(row, clusterNameColumnID, includeColumnID, point)) {
+						scan.add(labels.getID(row.getCell(clusterNameColumnID).toString()), point);
+					}
+				}
+				List<DistanceStatistics> partials = scan.finish();
+				distances = partials.get(0);
+				for (int t = 1; t < partials.size(); t++) {
+					distances.merge(partials.get(t));
+				}
+			}
+		}
+
+		List<DataCell> cells = new ArrayList<DataCell>();
+		if (m_daviesBouldin.getBooleanValue()) {
+			cells.add(new DoubleCell(ClusterStatistics.daviesBouldin(distances.getMeanDistances(),
+					centroids.getCentroids(), dimensions, pool)));
+		}
+		if (m_calinskiHarabasz.getBooleanValue()) {
+			cells.add(new DoubleCell(ValidityIndices.calinskiHarabasz(centroids.getCounts(),
+					centroids.getCentroids(), centroids.getDeviations(), dimensions)));
+		}
+		if (m_dunn.getBooleanValue()) {
+			cells.add(new DoubleCell(
+					ValidityIndices.dunn(distances.getMeanDistances(), centroids.getCentroids(), dimensions)));
+		}
+		if (m_silhouette.getBooleanValue()) {
+			cells.add(new DoubleCell(distances.getSimplifiedSilhouette()));
+		}
+		if (m_sse.getBooleanValue()) {
+			cells.add(new DoubleCell(ValidityIndices.sse(centroids.getDeviations())));
+		}
+
+		outputContainer.addRowToTable(new DefaultRow("Row_1", cells.toArray(new DataCell[cells.size()])));
+
+		outputContainer.close();
+
+		return new BufferedDataTable[] { outputContainer.getTable() };
+	}
+
+	/**
+	 * Decides whether the next row is processed. One random number is drawn per
+	 * row, so a generator with the same seed samples the same rows again.
+	 *
+	 * @param rand The random generator used for sampling.
+	 * @return True if the row is processed.
+	 */
+	private boolean isSampled(final Random rand) {
+		double randomThreshold = m_randomSampling.getBooleanValue() ? m_sampleRate.getDoubleValue() : 1.0;
+		return randomThreshold >= rand.nextDouble();
+	}
+
+	/**
+	 * Reads the coordinates of the point from the selected columns of the row.
+	 * A row without a cluster or with a missing or NaN coordinate would turn
+	 * the sums of its cluster into NaN, so it is skipped.
+	 *
+	 * @param row                 The row to read.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param point               The array the coordinates are written to.
+	 * @return False if the row is skipped.
+	 */
+	private static boolean readPoint(final DataRow row, final int clusterNameColumnID, final int[] includeColumnID,
+			final double[] point) {
+		if (row.getCell(clusterNameColumnID).isMissing()) {
+			return false;
+		}
+		for (int j = 0; j < includeColumnID.length; j++) {
+			DataCell cell = row.getCell(includeColumnID[j]);
+			if (cell.isMissing()) {
+				return false;
+			}
+			point[j] = ((DoubleValue) cell).getDoubleValue();
+			if (Double.isNaN(point[j])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void reset() {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
+
+		if (m_filterColumns.getIncludeList().isEmpty()) {
+			throw new InvalidSettingsException("No numeric columns selected from input.");
+		}
+
+		if (!inSpecs[0].containsName(m_clusterColumn.getStringValue())) {
+			throw new InvalidSettingsException("No column with cluster names selected from input.");
+		}
+		if (!inSpecs[0].getColumnSpec(m_clusterColumn.getStringValue()).getType().isCompatible(StringValue.class)) {
+			throw new InvalidSettingsException(
+					"The cluster column \"" + m_clusterColumn.getStringValue() + "\" is not a string column.");
+		}
+
+		List<DataColumnSpec> colSpecs = new ArrayList<DataColumnSpec>();
+		if (m_daviesBouldin.getBooleanValue()) {
+			colSpecs.add(new DataColumnSpecCreator("Davies-Bouldin Index", DoubleCell.TYPE).createSpec());
+		}
+		if (m_calinskiHarabasz.getBooleanValue()) {
+			colSpecs.add(new DataColumnSpecCreator("Calinski-Harabasz Index", DoubleCell.TYPE).createSpec());
+		}
+		if (m_dunn.getBooleanValue()) {
+			colSpecs.add(new DataColumnSpecCreator("Dunn Index", DoubleCell.TYPE).createSpec());
+		}
+		if (m_silhouette.getBooleanValue()) {
+			colSpecs.add(new DataColumnSpecCreator("Simplified Silhouette", DoubleCell.TYPE).createSpec());
+		}
+		if (m_sse.getBooleanValue()) {
+			colSpecs.add(new DataColumnSpecCreator("SSE", DoubleCell.TYPE).createSpec());
+		}
+		if (colSpecs.isEmpty()) {
+			throw new InvalidSettingsException("No index selected.");
+		}
+		DataTableSpec outSpec = new DataTableSpec(colSpecs.toArray(new DataColumnSpec[colSpecs.size()]));
+
+		return new DataTableSpec[] { outSpec };
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void saveSettingsTo(final NodeSettingsWO settings) {
+
+		m_clusterColumn.saveSettingsTo(settings);
+		m_filterColumns.saveSettingsTo(settings);
+		m_randomState.saveSettingsTo(settings);
+		m_randomSampling.saveSettingsTo(settings);
+		m_sampleRate.saveSettingsTo(settings);
+		m_threads.saveSettingsTo(settings);
+		m_daviesBouldin.saveSettingsTo(settings);
+		m_calinskiHarabasz.saveSettingsTo(settings);
+		m_dunn.saveSettingsTo(settings);
+		m_silhouette.saveSettingsTo(settings);
+		m_sse.saveSettingsTo(settings);
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
+
+		m_clusterColumn.loadSettingsFrom(settings);
+		m_filterColumns.loadSettingsFrom(settings);
+		m_randomSampling.loadSettingsFrom(settings);
+		m_randomState.loadSettingsFrom(settings);
+		m_sampleRate.loadSettingsFrom(settings);
+		m_threads.loadSettingsFrom(settings);
+		m_daviesBouldin.loadSettingsFrom(settings);
+		m_calinskiHarabasz.loadSettingsFrom(settings);
+		m_dunn.loadSettingsFrom(settings);
+		m_silhouette.loadSettingsFrom(settings);
+		m_sse.loadSettingsFrom(settings);
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
+
+		m_clusterColumn.validateSettings(settings);
+		m_filterColumns.validateSettings(settings);
+		m_randomSampling.validateSettings(settings);
+		m_randomState.validateSettings(settings);
+		m_sampleRate.validateSettings(settings);
+		m_threads.validateSettings(settings);
+		m_daviesBouldin.validateSettings(settings);
+		m_calinskiHarabasz.validateSettings(settings);
+		m_dunn.validateSettings(settings);
+		m_silhouette.validateSettings(settings);
+		m_sse.validateSettings(settings);
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void loadInternals(final File internDir, final ExecutionMonitor exec)
+			throws IOException, CanceledExecutionException {
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void saveInternals(final File internDir, final ExecutionMonitor exec)
+			throws IOException, CanceledExecutionException {
+
+	}
+
+}
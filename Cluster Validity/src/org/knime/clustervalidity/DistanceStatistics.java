@@ -0,0 +1,109 @@
+package org.knime.clustervalidity;
+
+import java.util.function.Supplier;
+
+import org.knime.SilhouetteCoeffiecient.ClusterStatistics;
+import org.knime.other.ClusterMoments;
+
+/**
+ * The distances of the points to the centroids, collected in the second scan:
+ * per cluster the sum of the distances of its points to its centroid, which
+ * gives the scatter for the Davies-Bouldin index and the centroid diameter for
+ * the Dunn index, and optionally the sum of the simplified silhouettes, which
+ * compare the distance to the own centroid with the distance to the closest
+ * other centroid. The distances and the silhouettes are computed by the
+ * cluster statistics of the Silhouette Coefficient node.
+ *
+ * @author Rytis Kumpa
+ */
+final class DistanceStatistics {
+
+	private final ClusterStatistics centroids;
+
+	private final int dimensions;
+
+	private final boolean silhouette;
+
+	private final double[] distanceSums;
+
+	private double silhouetteSum = 0.0;
+
+	private long silhouetteCount = 0;
+
+	private DistanceStatistics(final ClusterStatistics centroids, final int numClusters, final int dimensions,
+			final boolean silhouette) {
+		this.centroids = centroids;
+		this.dimensions = dimensions;
+		this.silhouette = silhouette;
+		this.distanceSums = new double[numClusters];
+	}
+
+	/**
+	 * @param moments    The moments of the first scan, which are only read.
+	 * @param silhouette True if the simplified silhouette is computed, which
+	 *                   needs the distances to all centroids.
+	 * @return Creates the empty statistics of a worker, all workers share the
+	 *         centroids.
+	 */
+	static Supplier<DistanceStatistics> createFactory(final ClusterMoments moments, final boolean silhouette) {
+
+		long[] counts = moments.getCounts();
+		int dimensions = moments.getDimensions();
+		ClusterStatistics centroids = new ClusterStatistics(counts, moments.getCentroids(), moments.getDeviations(),
+				dimensions);
+		return () -> new DistanceStatistics(centroids, counts.length, dimensions, silhouette);
+	}
+
+	/**
+	 * Adds the distances of a chunk of points.
+	 *
+	 * @param clusters The ID of the cluster of each point.
+	 * @param points   The coordinates, point i occupies [i * d, (i + 1) * d).
+	 * @param size     The number of points in the chunk.
+	 */
+	void add(final int[] clusters, final double[] points, final int size) {
+
+		for (int i = 0; i < size; i++) {
+			int cluster = clusters[i];
+			int pointOffset = i * dimensions;
+			distanceSums[cluster] += Math.sqrt(centroids.squaredDistanceToCentroid(points, pointOffset, cluster));
+			if (silhouette) {
+				silhouetteSum += centroids.simplifiedSilhouette(points, pointOffset, cluster);
+				silhouetteCount++;
+			}
+		}
+	}
+
+	/**
+	 * Adds the distances of another chunk of the data.
+	 *
+	 * @param other The statistics of the other chunk.
+	 */
+	void merge(final DistanceStatistics other) {
+
+		for (int c = 0; c < distanceSums.length; c++) {
+			distanceSums[c] += other.distanceSums[c];
+		}
+		silhouetteSum += other.silhouetteSum;
+		silhouetteCount += other.silhouetteCount;
+	}
+
+	/**
+	 * @return The mean distance of the points of each cluster to its centroid.
+	 */
+	double[] getMeanDistances() {
+
+		double[] meanDistances = new double[distanceSums.length];
+		for (int c = 0; c < distanceSums.length; c++) {
+			meanDistances[c] = distanceSums[c] / centroids.getCount(c);
+		}
+		return meanDistances;
+	}
+
+	/**
+	 * @return The mean simplified silhouette of all points.
+	 */
+	double getSimplifiedSilhouette() {
+		return silhouetteSum / silhouetteCount;
+	}
+}
@@ -0,0 +1,104 @@
+package org.knime.clustervalidity;
+
+/**
+ * The cluster validity indices, computed from the per-cluster statistics of
+ * the scans. Each index takes O(k^2 * d) time at most. The Davies-Bouldin
+ * index is computed by {@link org.knime.other.ClusterStatistics}.
+ *
+ * @author Rytis Kumpa
+ */
+final class ValidityIndices {
+
+	private ValidityIndices() {
+	}
+
+	/**
+	 * Computes the Calinski-Harabasz index, the ratio of the dispersion between
+	 * the clusters to the dispersion within them, each divided by its degrees of
+	 * freedom. A higher value indicates a better clustering.
+	 *
+	 * @param counts     The number of points of each cluster.
+	 * @param centroids  The centroids, cluster c occupies [c * d, (c + 1) * d).
+	 * @param deviations The sum of squared distances of the points of each
+	 *                   cluster to its centroid.
+	 * @param dimensions The number of coordinates of each centroid.
+	 * @return The Calinski-Harabasz index.
+	 */
+	static double calinskiHarabasz(final long[] counts, final double[] centroids, final double[] deviations,
+			final int dimensions) {
+
+		int numClusters = counts.length;
+		long numPoints = 0;
+		double[] mean = new double[dimensions];
+		for (int c = 0; c < numClusters; c++) {
+			numPoints += counts[c];
+			for (int j = 0; j < dimensions; j++) {
+				mean[j] += counts[c] * centroids[c * dimensions + j];
+			}
+		}
+		for (int j = 0; j < dimensions; j++) {
+			mean[j] /= numPoints;
+		}
+
+		double between = 0.0;
+		for (int c = 0; c < numClusters; c++) {
+			double distance = 0.0;
+			for (int j = 0; j < dimensions; j++) {
+				double temp = centroids[c * dimensions + j] - mean[j];
+				distance += temp * temp;
+			}
+			between += counts[c] * distance;
+		}
+		double within = sse(deviations);
+		return (between / (numClusters - 1)) / (within / (numPoints - numClusters));
+	}
+
+	/**
+	 * Computes the Dunn index with the distance between the centroids as the
+	 * separation of two clusters and twice the mean distance to the centroid as
+	 * the diameter of a cluster. A higher value indicates a better clustering.
+	 *
+	 * @param scatter    The mean distance of the points of each cluster to its
+	 *                   centroid.
+	 * @param centroids  The centroids, cluster c occupies [c * d, (c + 1) * d).
+	 * @param dimensions The number of coordinates of each centroid.
+	 * @return The Dunn index.
+	 */
+	static double dunn(final double[] scatter, final double[] centroids, final int dimensions) {
+
+		int numClusters = scatter.length;
+		double minSeparation = Double.POSITIVE_INFINITY;
+		double maxDiameter = 0.0;
+		for (int c1 = 0; c1 < numClusters; c1++) {
+			maxDiameter = Math.max(maxDiameter, 2 * scatter[c1]);
+			for (int c2 = c1 + 1; c2 < numClusters; c2++) {
+				minSeparation = Math.min(minSeparation, distance(centroids, c1, c2, dimensions));
+			}
+		}
+		return minSeparation / maxDiameter;
+	}
+
+	/**
+	 * @param deviations The sum of squared distances of the points of each
+	 *                   cluster to its centroid.
+	 * @return The sum of squared distances of all points to their centroid.
+	 */
+	static double sse(final double[] deviations) {
+
+		double sse = 0.0;
+		for (double deviation : deviations) {
+			sse += deviation;
+		}
+		return sse;
+	}
+
+	private static double distance(final double[] centroids, final int c1, final int c2, final int dimensions) {
+
+		double distance = 0.0;
+		for (int j = 0; j < dimensions; j++) {
+			double temp = centroids[c1 * dimensions + j] - centroids[c2 * dimensions + j];
+			distance += temp * temp;
+		}
+		return Math.sqrt(distance);
+	}
+}
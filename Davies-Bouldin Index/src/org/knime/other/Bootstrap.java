@@ -0,0 +1,214 @@
+package org.knime.other;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * A bootstrap over blocks of the data. The sampled points are distributed over
+ * a fixed number of blocks while the table is scanned, the n-th sampled point
+ * goes to block n mod B, so even a small sample fills all blocks. Each block
+ * keeps its own cluster statistics and is added to by a single worker of the
+ * scan, so the blocks do not depend on the number of threads. A replicate
+ * draws B blocks with replacement and merges their statistics, so no row is
+ * read again. Each replicate uses its own random generator, so the replicates
+ * do not depend on the number of threads they are computed with either.
+ *
+ * @author Rytis Kumpa
+ */
+final class Bootstrap {
+
+	// The number of blocks of the whole data.
+	static final int NUM_BLOCKS = 100;
+
+	/**
+	 * Computes the value of a replicate.
+	 */
+	interface Replicate {
+
+		/**
+		 * @param blocks The indices of the drawn blocks, a block can be drawn more
+		 *               than once.
+		 * @return The value of the replicate, NaN if it cannot be computed.
+		 * @throws Exception If the computation fails.
+		 */
+		double compute(int[] blocks) throws Exception;
+	}
+
+	/**
+	 * The blocks of a worker of a scan, block b belongs to worker b mod T. The
+	 * statistics of a block are created when it is first used.
+	 *
+	 * @param <A> The type of the block statistics.
+	 */
+	static final class Blocks<A> {
+
+		private final int numWorkers;
+
+		private final Supplier<A> factory;
+
+		// Block b of the worker is at b / T.
+		private final List<A> blocks = new ArrayList<A>();
+
+		/**
+		 * @param numWorkers The number of workers of the scan.
+		 * @param factory    Creates empty statistics for a block.
+		 */
+		Blocks(final int numWorkers, final Supplier<A> factory) {
+			this.numWorkers = numWorkers;
+			this.factory = factory;
+		}
+
+		/**
+		 * @param block The index of a block of the worker.
+		 * @return The statistics of the block.
+		 */
+		A get(final int block) {
+			int index = block / numWorkers;
+			while (blocks.size() <= index) {
+				blocks.add(factory.get());
+			}
+			return blocks.get(index);
+		}
+
+		/**
+		 * @param partials The blocks of each worker of a scan.
+		 * @return The statistics of all blocks, in block order.
+		 */
+		static <A> List<A> collect(final List<Blocks<A>> partials) {
+			List<A> all = new ArrayList<A>(NUM_BLOCKS);
+			for (int b = 0; b < NUM_BLOCKS; b++) {
+				all.add(partials.get(workerOf(b, partials.size())).get(b));
+			}
+			return all;
+		}
+	}
+
+	private Bootstrap() {
+	}
+
+	/**
+	 * @param sampled The number of points sampled before the point.
+	 * @return The block of the point, the same in every pass over the same
+	 *         sample.
+	 */
+	static int blockOf(final long sampled) {
+		return (int) (sampled % NUM_BLOCKS);
+	}
+
+	/**
+	 * @param block      The index of a block.
+	 * @param numWorkers The number of workers of the scan.
+	 * @return The worker the points of the block are passed to.
+	 */
+	static int workerOf(final int block, final int numWorkers) {
+		return block % numWorkers;
+	}
+
+	/**
+	 * Computes the replicates on the threads of a pool. The progress is reported
+	 * as the replicates complete, and the remaining replicates are stopped if
+	 * the execution is canceled.
+	 *
+	 * @param numReplicates The number of replicates.
+	 * @param numBlocks     The number of blocks.
+	 * @param seed          The seed of the random generators.
+	 * @param pool          The thread pool of the execution.
+	 * @param replicate     Computes the value of a replicate.
+	 * @param exec          The execution monitor.
+	 * @return The value of each replicate.
+	 * @throws InterruptedException       If the thread is interrupted.
+	 * @throws ExecutionException         If a replicate fails.
+	 * @throws CanceledExecutionException If the execution is canceled.
+	 */
+	static double[] run(final int numReplicates, final int numBlocks, final long seed, final ThreadPool pool,
+			final Replicate replicate, final ExecutionMonitor exec)
+			throws InterruptedException, ExecutionException, CanceledExecutionException {
+
+		List<Future<Double>> results = new ArrayList<Future<Double>>();
+		for (int r = 0; r < numReplicates; r++) {
+			long replicateSeed = seed + r;
+			results.add(pool.enqueue(() -> {
+				exec.checkCanceled();
+				Random rand = new Random(replicateSeed);
+				int[] blocks = new int[numBlocks];
+				for (int b = 0; b < numBlocks; b++) {
+					blocks[b] = rand.nextInt(numBlocks);
+				}
+				return replicate.compute(blocks);
+			}));
+		}
+
+		double[] values = new double[numReplicates];
+		try {
+			// The calling thread does not occupy a thread of the pool while it waits.
+			pool.runInvisible(() -> {
+				for (int r = 0; r < numReplicates; r++) {
+					while (true) {
+						try {
+							values[r] = results.get(r).get(100, TimeUnit.MILLISECONDS);
+							break;
+						} catch (TimeoutException e) {
+							exec.checkCanceled();
+						}
+					}
+					exec.setProgress((r + 1) / (double) numReplicates);
+				}
+				return null;
+			});
+		} catch (ExecutionException e) {
+			// A cancellation is passed on as such, also if a replicate noticed it.
+			Throwable cause = e;
+			while (cause instanceof ExecutionException && cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			if (cause instanceof CanceledExecutionException) {
+				throw (CanceledExecutionException) cause;
+			}
+			throw e;
+		} finally {
+			for (Future<Double> result : results) {
+				result.cancel(true);
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Computes the percentile interval of the replicates. Replicates that could
+	 * not be computed are left out.
+	 *
+	 * @param values     The value of each replicate.
+	 * @param confidence The confidence level, e.g. 0.95.
+	 * @return The lower and upper bound, NaN if no replicate could be computed.
+	 */
+	static double[] percentileInterval(final double[] values, final double confidence) {
+
+		double[] sorted = Arrays.stream(values).filter(v -> !Double.isNaN(v)).sorted().toArray();
+		if (sorted.length == 0) {
+			return new double[] { Double.NaN, Double.NaN };
+		}
+		double alpha = (1.0 - confidence) / 2.0;
+		return new double[] { percentile(sorted, alpha), percentile(sorted, 1.0 - alpha) };
+	}
+
+	/**
+	 * @param sorted The sorted values.
+	 * @param p      The probability.
+	 * @return The p-quantile with the nearest rank method.
+	 */
+	private static double percentile(final double[] sorted, final double p) {
+		int rank = (int) Math.ceil(p * sorted.length);
+		return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+	}
+}
@@ -0,0 +1,177 @@
+package org.knime.other;
+
+import java.util.Arrays;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.MissingValue;
+import org.knime.core.data.MissingValueException;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.ModelContentRO;
+import org.knime.core.node.ModelContentWO;
+
+/**
+ * The centroids of the clusters as given by an upstream node, e.g. the cluster
+ * centers of k-Means. Each row of the centroid table holds one centroid, the
+ * cluster is identified by a column with the same name as the cluster column
+ * of the data or otherwise by the row key. The coordinates are read from the
+ * columns with the same names as the selected numeric columns of the data.
+ *
+ * @author Rytis Kumpa
+ */
+final class Centroids {
+
+	private static final String CFGKEY_NAMES = "centroidNames";
+	private static final String CFGKEY_COORDINATES = "centroidCoordinates";
+
+	private final ClusterLabels labels;
+
+	// The centroid of cluster c occupies [c * d, (c + 1) * d).
+	private final double[] coordinates;
+
+	private final int dimensions;
+
+	private Centroids(final ClusterLabels labels, final double[] coordinates, final int dimensions) {
+		this.labels = labels;
+		this.coordinates = coordinates;
+		this.dimensions = dimensions;
+	}
+
+	/**
+	 * Checks that the centroid table has all the columns the centroids are read
+	 * from.
+	 *
+	 * @param spec          The spec of the centroid table.
+	 * @param includeColumn The names of the numeric columns of the data.
+	 * @throws InvalidSettingsException If a column is missing or not numeric.
+	 */
+	static void validate(final DataTableSpec spec, final String[] includeColumn) throws InvalidSettingsException {
+		for (String column : includeColumn) {
+			int index = spec.findColumnIndex(column);
+			if (index < 0) {
+				throw new InvalidSettingsException("The centroid table has no column \"" + column + "\".");
+			}
+			if (!spec.getColumnSpec(index).getType().isCompatible(DoubleValue.class)) {
+				throw new InvalidSettingsException("The column \"" + column + "\" of the centroid table is not numeric.");
+			}
+		}
+	}
+
+	/**
+	 * Reads the centroids from the table.
+	 *
+	 * @param table         The centroid table.
+	 * @param clusterColumn The name of the cluster column of the data.
+	 * @param includeColumn The names of the numeric columns of the data.
+	 * @return The centroids.
+	 * @throws InvalidSettingsException If a column is missing or a cluster has
+	 *                                  more than one centroid.
+	 */
+	static Centroids read(final BufferedDataTable table, final String clusterColumn, final String[] includeColumn)
+			throws InvalidSettingsException {
+
+		DataTableSpec spec = table.getDataTableSpec();
+		validate(spec, includeColumn);
+		int clusterNameColumnID = spec.findColumnIndex(clusterColumn);
+		int[] includeColumnID = spec.columnsToIndices(includeColumn);
+		int dimensions = includeColumnID.length;
+
+		ClusterLabels labels = new ClusterLabels();
+		// Grown by doubling and trimmed once all rows are read.
+		double[] coordinates = new double[0];
+		for (DataRow row : table) {
+			String clusterName = clusterNameColumnID < 0 ? row.getKey().getString()
+					: row.getCell(clusterNameColumnID).toString();
+			int cluster = labels.intern(clusterName);
+			if (cluster < labels.size() - 1) {
+				throw new InvalidSettingsException("The centroid table has more than one row for cluster \""
+						+ clusterName + "\".");
+			}
+			if (labels.size() * dimensions > coordinates.length) {
+				coordinates = Arrays.copyOf(coordinates, Math.max(labels.size(), 2 * cluster) * dimensions);
+			}
+			for (int j = 0; j < dimensions; j++) {
+				DataCell cell = row.getCell(includeColumnID[j]);
+				if (cell.isMissing()) {
+					throw new MissingValueException((MissingValue) cell);
+				}
+				coordinates[cluster * dimensions + j] = ((DoubleValue) cell).getDoubleValue();
+			}
+		}
+		return new Centroids(labels, Arrays.copyOf(coordinates, labels.size() * dimensions), dimensions);
+	}
+
+	/**
+	 * @return The names and IDs of the clusters that have a centroid.
+	 */
+	ClusterLabels getLabels() {
+		return labels;
+	}
+
+	/**
+	 * @return The centroids, cluster c occupies the coordinates [c * d, (c + 1) *
+	 *         d) with c being the ID in {@link #getLabels()}.
+	 */
+	double[] getCoordinates() {
+		return coordinates;
+	}
+
+	/**
+	 * Arranges the centroids in the order of other cluster IDs.
+	 *
+	 * @param other The labels the IDs refer to.
+	 * @return The centroids, cluster c of the other labels occupies [c * d, (c +
+	 *         1) * d).
+	 * @throws IllegalStateException If a cluster has no centroid.
+	 */
+	double[] arrange(final ClusterLabels other) {
+
+		double[] arranged = new double[other.size() * dimensions];
+		for (int c = 0; c < other.size(); c++) {
+			int cluster = labels.getID(other.getName(c));
+			if (cluster < 0) {
+				throw new IllegalStateException("No centroid for cluster \"" + other.getName(c) + "\".");
+			}
+			System.arraycopy(coordinates, cluster * dimensions, arranged, c * dimensions, dimensions);
+		}
+		return arranged;
+	}
+
+	/**
+	 * Stores the centroids, e.g. in the internals of a streamable operator.
+	 *
+	 * @param config The content to write to.
+	 */
+	void save(final ModelContentWO config) {
+
+		String[] names = new String[labels.size()];
+		for (int c = 0; c < names.length; c++) {
+			names[c] = labels.getName(c);
+		}
+		config.addStringArray(CFGKEY_NAMES, names);
+		config.addDoubleArray(CFGKEY_COORDINATES, coordinates);
+	}
+
+	/**
+	 * Restores centroids stored with {@link #save(ModelContentWO)}.
+	 *
+	 * @param config     The content to read from.
+	 * @param dimensions The number of coordinates of each centroid.
+	 * @return The centroids, or null if none have been stored.
+	 * @throws InvalidSettingsException If the content is incomplete.
+	 */
+	static Centroids load(final ModelContentRO config, final int dimensions) throws InvalidSettingsException {
+
+		if (!config.containsKey(CFGKEY_NAMES)) {
+			return null;
+		}
+		ClusterLabels labels = new ClusterLabels();
+		for (String name : config.getStringArray(CFGKEY_NAMES)) {
+			labels.intern(name);
+		}
+		return new Centroids(labels, config.getDoubleArray(CFGKEY_COORDINATES), dimensions);
+	}
+}
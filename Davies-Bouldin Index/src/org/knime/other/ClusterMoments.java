@@ -0,0 +1,283 @@
+package org.knime.other;
+
+import java.util.Arrays;
+
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.ModelContentRO;
+import org.knime.core.node.ModelContentWO;
+
+/**
+ * The size, centroid and sum of squared deviations of each cluster, which are
+ * sufficient for the Davies-Bouldin index with the root mean square scatter
+ * (q = 2). The moments are updated point by point with Welford's stable
+ * update, and the moments of separate parts of the data can be merged, so the
+ * index can be computed in one pass and over distributed chunks.
+ *
+ * @author Rytis Kumpa
+ */
+public final class ClusterMoments {
+
+	private static final String CFGKEY_DIMENSIONS = "dimensions";
+	private static final String CFGKEY_NAMES = "clusterNames";
+	private static final String CFGKEY_COUNTS = "counts";
+	private static final String CFGKEY_MEANS = "means";
+	private static final String CFGKEY_DEVIATIONS = "deviations";
+
+	private final int dimensions;
+
+	private final ClusterLabels labels;
+
+	private long[] counts = new long[0];
+
+	// The centroid of cluster c occupies [c * d, (c + 1) * d).
+	private double[] means = new double[0];
+
+	// The sum of squared distances of the points of each cluster to its centroid.
+	private double[] deviations = new double[0];
+
+	/**
+	 * @param dimensions The number of coordinates of each point.
+	 */
+	public ClusterMoments(final int dimensions) {
+		this(dimensions, new ClusterLabels());
+	}
+
+	/**
+	 * Creates moments that refer to clusters by the IDs of labels shared with
+	 * other moments, e.g. for the chunks of a parallel scan.
+	 *
+	 * @param dimensions The number of coordinates of each point.
+	 * @param labels     The names and IDs of the clusters.
+	 */
+	public ClusterMoments(final int dimensions, final ClusterLabels labels) {
+		this.dimensions = dimensions;
+		this.labels = labels;
+	}
+
+	/**
+	 * Adds a point to the moments of its cluster.
+	 *
+	 * @param clusterName The name of the cluster the point belongs to.
+	 * @param point       The coordinates of the point.
+	 */
+	public void add(final String clusterName, final double[] point) {
+
+		add(getCluster(clusterName), point, 0);
+	}
+
+	/**
+	 * Adds a chunk of points to the moments of their clusters. The IDs refer to
+	 * the shared labels, which are only read once the scan is complete.
+	 *
+	 * @param clusters The ID of the cluster of each point.
+	 * @param points   The coordinates, point i occupies [i * d, (i + 1) * d).
+	 * @param size     The number of points in the chunk.
+	 */
+	public void add(final int[] clusters, final double[] points, final int size) {
+		for (int i = 0; i < size; i++) {
+			add(clusters[i], points, i * dimensions);
+		}
+	}
+
+	/**
+	 * Adds a single point of a chunk to the moments of its cluster.
+	 *
+	 * @param cluster     The ID of the cluster of the point.
+	 * @param points      The coordinates of the chunk.
+	 * @param pointOffset The index of the first coordinate of the point.
+	 */
+	public void add(final int cluster, final double[] points, final int pointOffset) {
+
+		ensureCapacity(cluster);
+		long count = ++counts[cluster];
+		int offset = cluster * dimensions;
+		double deviation = 0.0;
+		for (int j = 0; j < dimensions; j++) {
+			double delta = points[pointOffset + j] - means[offset + j];
+			means[offset + j] += delta / count;
+			deviation += delta * (points[pointOffset + j] - means[offset + j]);
+		}
+		deviations[cluster] += deviation;
+	}
+
+	/**
+	 * Adds the moments of another part of the data, clusters are matched by
+	 * their name. The update follows Chan et al. for combining the sums of
+	 * squared deviations of two samples.
+	 *
+	 * @param other The moments of the other part.
+	 */
+	public void merge(final ClusterMoments other) {
+
+		// Moments with shared labels may not have seen every cluster.
+		int otherClusters = Math.min(other.labels.size(), other.counts.length);
+		for (int o = 0; o < otherClusters; o++) {
+			long otherCount = other.counts[o];
+			if (otherCount == 0) {
+				continue;
+			}
+			int cluster = getCluster(other.labels.getName(o));
+			long count = counts[cluster];
+			long total = count + otherCount;
+			int offset = cluster * dimensions;
+			int otherOffset = o * dimensions;
+			double squaredDelta = 0.0;
+			for (int j = 0; j < dimensions; j++) {
+				double delta = other.means[otherOffset + j] - means[offset + j];
+				squaredDelta += delta * delta;
+				means[offset + j] += delta * otherCount / total;
+			}
+			deviations[cluster] += other.deviations[o] + squaredDelta * count * otherCount / total;
+			counts[cluster] = total;
+		}
+	}
+
+	/**
+	 * @return The number of clusters.
+	 */
+	public int getNumClusters() {
+		return labels.size();
+	}
+
+	/**
+	 * @return The names and IDs of the clusters.
+	 */
+	public ClusterLabels getLabels() {
+		return labels;
+	}
+
+	/**
+	 * @return The number of points of each cluster.
+	 */
+	public long[] getCounts() {
+		ensureCapacity(labels.size() - 1);
+		return Arrays.copyOf(counts, labels.size());
+	}
+
+	/**
+	 * @return The sum of squared distances of the points of each cluster to its
+	 *         centroid.
+	 */
+	public double[] getDeviations() {
+		ensureCapacity(labels.size() - 1);
+		return Arrays.copyOf(deviations, labels.size());
+	}
+
+	/**
+	 * @return The centroids of the clusters, cluster c occupies the coordinates
+	 *         [c * d, (c + 1) * d).
+	 */
+	public double[] getCentroids() {
+		ensureCapacity(labels.size() - 1);
+		return Arrays.copyOf(means, labels.size() * dimensions);
+	}
+
+	/**
+	 * @return The root mean square distance of the points of each cluster to its
+	 *         centroid, NaN for a cluster without points.
+	 */
+	public double[] getRmsScatter() {
+
+		// Moments with shared labels may not have seen every cluster.
+		ensureCapacity(labels.size() - 1);
+		double[] scatter = new double[labels.size()];
+		for (int c = 0; c < scatter.length; c++) {
+			scatter[c] = Math.sqrt(deviations[c] / counts[c]);
+		}
+		return scatter;
+	}
+
+	/**
+	 * Computes the root mean square distance of the points of each cluster to
+	 * centroids that are given in advance. The mean squared distance to a point c
+	 * is the variance plus the squared distance of the mean to c, so the moments
+	 * suffice.
+	 *
+	 * @param centroids The given centroids, cluster c occupies [c * d, (c + 1) *
+	 *                  d).
+	 * @return The root mean square distance of the points of each cluster to the
+	 *         given centroid.
+	 */
+	public double[] getRmsScatter(final double[] centroids) {
+
+		double[] scatter = new double[labels.size()];
+		for (int c = 0; c < scatter.length; c++) {
+			int offset = c * dimensions;
+			double squaredDelta = 0.0;
+			for (int j = 0; j < dimensions; j++) {
+				double delta = means[offset + j] - centroids[offset + j];
+				squaredDelta += delta * delta;
+			}
+			scatter[c] = Math.sqrt(deviations[c] / counts[c] + squaredDelta);
+		}
+		return scatter;
+	}
+
+	/**
+	 * @return The number of coordinates of each point.
+	 */
+	public int getDimensions() {
+		return dimensions;
+	}
+
+	/**
+	 * Stores the moments, e.g. in the internals of a streamable operator.
+	 *
+	 * @param config The content to write to.
+	 */
+	void save(final ModelContentWO config) {
+
+		String[] names = new String[labels.size()];
+		for (int c = 0; c < names.length; c++) {
+			names[c] = labels.getName(c);
+		}
+		config.addInt(CFGKEY_DIMENSIONS, dimensions);
+		config.addStringArray(CFGKEY_NAMES, names);
+		config.addLongArray(CFGKEY_COUNTS, Arrays.copyOf(counts, names.length));
+		config.addDoubleArray(CFGKEY_MEANS, getCentroids());
+		config.addDoubleArray(CFGKEY_DEVIATIONS, Arrays.copyOf(deviations, names.length));
+	}
+
+	/**
+	 * Restores moments stored with {@link #save(ModelContentWO)}.
+	 *
+	 * @param config The content to read from.
+	 * @return The moments.
+	 * @throws InvalidSettingsException If the content is incomplete.
+	 */
+	static ClusterMoments load(final ModelContentRO config) throws InvalidSettingsException {
+
+		ClusterMoments moments = new ClusterMoments(config.getInt(CFGKEY_DIMENSIONS));
+		for (String name : config.getStringArray(CFGKEY_NAMES)) {
+			moments.getCluster(name);
+		}
+		long[] counts = config.getLongArray(CFGKEY_COUNTS);
+		double[] means = config.getDoubleArray(CFGKEY_MEANS);
+		double[] deviations = config.getDoubleArray(CFGKEY_DEVIATIONS);
+		System.arraycopy(counts, 0, moments.counts, 0, counts.length);
+		System.arraycopy(means, 0, moments.means, 0, means.length);
+		System.arraycopy(deviations, 0, moments.deviations, 0, deviations.length);
+		return moments;
+	}
+
+	/**
+	 * @param clusterName The name of the cluster.
+	 * @return The ID of the cluster, the arrays are grown for a new cluster.
+	 */
+	private int getCluster(final String clusterName) {
+
+		int cluster = labels.intern(clusterName);
+		ensureCapacity(cluster);
+		return cluster;
+	}
+
+	private void ensureCapacity(final int cluster) {
+
+		if (cluster >= counts.length) {
+			int newSize = Math.max(cluster + 1, counts.length * 2);
+			counts = Arrays.copyOf(counts, newSize);
+			means = Arrays.copyOf(means, newSize * dimensions);
+			deviations = Arrays.copyOf(deviations, newSize);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package org.knime.other;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * The most similar other clusters of each cluster, i.e. the partners with the
+ * largest ratio R = (S_i + S_j) / M_ij. The partner with the largest ratio is
+ * the one that determines the contribution of the cluster to the index. The
+ * pairs are collected while the index is computed, each cluster only by the
+ * thread that computes its row of the ratio matrix.
+ *
+ * @author Rytis Kumpa
+ */
+final class ClusterPairs {
+
+	private final int maxPairs;
+
+	// The number of partners kept per cluster, at most one less than the number
+	// of clusters.
+	private int numPairs = 0;
+
+	private ClusterLabels labels = new ClusterLabels();
+
+	private double[] scatter = new double[0];
+
+	// The partners of cluster c occupy [c * m, (c + 1) * m), ordered by the
+	// ratio, -1 if a cluster has less than m partners.
+	private int[] partners = new int[0];
+
+	private double[] ratios = new double[0];
+
+	private double[] separations = new double[0];
+
+	/**
+	 * @param numPairs The number of partners kept per cluster.
+	 */
+	ClusterPairs(final int numPairs) {
+		this.maxPairs = numPairs;
+	}
+
+	/**
+	 * Prepares the pairs of a new computation.
+	 *
+	 * @param clusterScatter The scatter of each cluster.
+	 */
+	void init(final double[] clusterScatter) {
+
+		scatter = clusterScatter;
+		numPairs = Math.min(maxPairs, Math.max(clusterScatter.length - 1, 0));
+		partners = new int[clusterScatter.length * numPairs];
+		ratios = new double[partners.length];
+		separations = new double[partners.length];
+		Arrays.fill(partners, -1);
+		Arrays.fill(ratios, Double.NEGATIVE_INFINITY);
+	}
+
+	/**
+	 * Offers a partner of a cluster, it is kept if its ratio is among the
+	 * largest. Partners with an equal ratio keep the order they were offered in.
+	 *
+	 * @param cluster    The ID of the cluster.
+	 * @param partner    The ID of the other cluster.
+	 * @param ratio      The ratio of the pair.
+	 * @param separation The distance between the centroids of the pair.
+	 */
+	void offer(final int cluster, final int partner, final double ratio, final double separation) {
+
+		int offset = cluster * numPairs;
+		int position = numPairs;
+		while (position > 0 && ratios[offset + position - 1] < ratio) {
+			position--;
+		}
+		if (position == numPairs) {
+			return;
+		}
+		for (int p = numPairs - 1; p > position; p--) {
+			partners[offset + p] = partners[offset + p - 1];
+			ratios[offset + p] = ratios[offset + p - 1];
+			separations[offset + p] = separations[offset + p - 1];
+		}
+		partners[offset + position] = partner;
+		ratios[offset + position] = ratio;
+		separations[offset + position] = separation;
+	}
+
+	/**
+	 * @param labels The names of the clusters the IDs refer to.
+	 */
+	void setLabels(final ClusterLabels labels) {
+		this.labels = labels;
+	}
+
+	/**
+	 * @return The spec of the table with one row per cluster and partner.
+	 */
+	static DataTableSpec createSpec() {
+
+		DataTableSpecCreator specCreator = new DataTableSpecCreator();
+		specCreator.addColumns(new DataColumnSpecCreator("Cluster", StringCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Partner", StringCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Rank", IntCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Scatter", DoubleCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Partner scatter", DoubleCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Separation", DoubleCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Ratio", DoubleCell.TYPE).createSpec());
+		return specCreator.createSpec();
+	}
+
+	/**
+	 * Creates the rows of the pairs, ordered by the cluster and the rank. Rank 1
+	 * is the worst partner of the cluster.
+	 *
+	 * @return The rows with the spec created by {@link #createSpec()}.
+	 */
+	List<DataRow> createRows() {
+
+		List<DataRow> rows = new ArrayList<DataRow>();
+		for (int c = 0; c < scatter.length; c++) {
+			for (int p = 0; p < numPairs; p++) {
+				int partner = partners[c * numPairs + p];
+				if (partner < 0) {
+					break;
+				}
+				rows.add(new DefaultRow(RowKey.createRowKey((long) rows.size()),
+						new StringCell(labels.getName(c)), new StringCell(labels.getName(partner)),
+						new IntCell(p + 1), new DoubleCell(scatter[c]), new DoubleCell(scatter[partner]),
+						new DoubleCell(separations[c * numPairs + p]), new DoubleCell(ratios[c * numPairs + p])));
+			}
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,366 @@
+package org.knime.other;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.knime.core.util.ThreadPool;
+
+/**
+ * The per-cluster values needed for the Davies-Bouldin index, held in
+ * primitive arrays indexed by the cluster ID. The first pass over the data
+ * sums the points of each cluster to get the centroids, the second pass sums
+ * the distances of the points to their centroid to get the scatter. If the
+ * centroids are known in advance, the first pass is skipped. Partial
+ * statistics of separate chunks of the data can be merged.
+ *
+ * @author Rytis Kumpa
+ */
+public final class ClusterStatistics {
+
+	private final int dimensions;
+
+	private long[] counts = new long[0];
+
+	// The sums and later the centroids, cluster c occupies [c * d, (c + 1) * d).
+	private double[] centroids = new double[0];
+
+	private double[] scatterSums = new double[0];
+
+	private boolean centroidsComputed = false;
+
+	// True if the centroids were given, the points are then counted in the
+	// scatter pass.
+	private boolean centroidsGiven = false;
+
+	/**
+	 * @param dimensions The number of coordinates of each point.
+	 */
+	ClusterStatistics(final int dimensions) {
+		this.dimensions = dimensions;
+	}
+
+	/**
+	 * Adds a chunk of points to the sums of their clusters, used in the first
+	 * pass.
+	 *
+	 * @param clusters The ID of the cluster of each point.
+	 * @param points   The coordinates, point i occupies [i * d, (i + 1) * d).
+	 * @param size     The number of points in the chunk.
+	 */
+	void addToCentroid(final int[] clusters, final double[] points, final int size) {
+		for (int i = 0; i < size; i++) {
+			addToCentroid(clusters[i], points, i * dimensions);
+		}
+	}
+
+	/**
+	 * Adds a single point of a chunk to the sum of its cluster.
+	 *
+	 * @param cluster     The ID of the cluster of the point.
+	 * @param points      The coordinates of the chunk.
+	 * @param pointOffset The index of the first coordinate of the point.
+	 */
+	void addToCentroid(final int cluster, final double[] points, final int pointOffset) {
+
+		ensureCapacity(cluster + 1);
+		counts[cluster]++;
+		int offset = cluster * dimensions;
+		for (int j = 0; j < dimensions; j++) {
+			centroids[offset + j] += points[pointOffset + j];
+		}
+	}
+
+	/**
+	 * Divides the sums by the cluster sizes, so that the second pass can start.
+	 *
+	 * @param numClusters The number of clusters.
+	 */
+	void computeCentroids(final int numClusters) {
+
+		counts = Arrays.copyOf(counts, numClusters);
+		centroids = Arrays.copyOf(centroids, numClusters * dimensions);
+		scatterSums = Arrays.copyOf(scatterSums, numClusters);
+		for (int c = 0; c < numClusters; c++) {
+			for (int j = 0; j < dimensions; j++) {
+				centroids[c * dimensions + j] /= counts[c];
+			}
+		}
+		centroidsComputed = true;
+	}
+
+	/**
+	 * Sets centroids that are known in advance, e.g. from the clustering node, so
+	 * that the scatter can be computed in a single pass.
+	 *
+	 * @param givenCentroids The centroids, cluster c occupies [c * d, (c + 1) *
+	 *                       d).
+	 * @param numClusters    The number of clusters.
+	 */
+	void setCentroids(final double[] givenCentroids, final int numClusters) {
+
+		counts = new long[numClusters];
+		centroids = Arrays.copyOf(givenCentroids, numClusters * dimensions);
+		scatterSums = new double[numClusters];
+		centroidsComputed = true;
+		centroidsGiven = true;
+	}
+
+	/**
+	 * Adds the distances of a chunk of points to their centroids, used in the
+	 * second pass.
+	 *
+	 * @param clusters The ID of the cluster of each point.
+	 * @param points   The coordinates, point i occupies [i * d, (i + 1) * d).
+	 * @param size     The number of points in the chunk.
+	 */
+	void addToScatter(final int[] clusters, final double[] points, final int size) {
+		for (int i = 0; i < size; i++) {
+			addToScatter(clusters[i], points, i * dimensions);
+		}
+	}
+
+	/**
+	 * Adds the distance of a single point of a chunk to its centroid.
+	 *
+	 * @param cluster     The ID of the cluster of the point.
+	 * @param points      The coordinates of the chunk.
+	 * @param pointOffset The index of the first coordinate of the point.
+	 */
+	void addToScatter(final int cluster, final double[] points, final int pointOffset) {
+
+		if (!centroidsComputed) {
+			throw new IllegalStateException("The centroids have to be computed before the scatter.");
+		}
+		if (centroidsGiven) {
+			counts[cluster]++;
+		}
+		double distance = 0.0;
+		int offset = cluster * dimensions;
+		for (int j = 0; j < dimensions; j++) {
+			double temp = points[pointOffset + j] - centroids[offset + j];
+			distance += temp * temp;
+		}
+		scatterSums[cluster] += Math.sqrt(distance);
+	}
+
+	/**
+	 * Creates empty statistics for a chunk of the scatter pass, which share the
+	 * centroids with these statistics.
+	 *
+	 * @return The statistics to be merged back with {@link #merge}.
+	 */
+	ClusterStatistics createScatterPartial() {
+
+		if (!centroidsComputed) {
+			throw new IllegalStateException("The centroids have to be computed before the scatter.");
+		}
+		ClusterStatistics partial = new ClusterStatistics(dimensions);
+		partial.counts = new long[counts.length];
+		partial.centroids = centroids;
+		partial.scatterSums = new double[counts.length];
+		partial.centroidsComputed = true;
+		partial.centroidsGiven = centroidsGiven;
+		return partial;
+	}
+
+	/**
+	 * Adds the statistics of another chunk of the data from the same pass.
+	 *
+	 * @param other The statistics of the other chunk.
+	 */
+	void merge(final ClusterStatistics other) {
+
+		ensureCapacity(other.counts.length);
+		for (int c = 0; c < other.counts.length; c++) {
+			counts[c] += other.counts[c];
+			scatterSums[c] += other.scatterSums[c];
+		}
+		// Before the centroids are computed, they are still sums.
+		if (!centroidsComputed) {
+			for (int j = 0; j < other.counts.length * dimensions; j++) {
+				centroids[j] += other.centroids[j];
+			}
+		}
+	}
+
+	private void ensureCapacity(final int numClusters) {
+
+		if (numClusters > counts.length) {
+			int newSize = Math.max(numClusters, counts.length * 2);
+			counts = Arrays.copyOf(counts, newSize);
+			centroids = Arrays.copyOf(centroids, newSize * dimensions);
+			scatterSums = Arrays.copyOf(scatterSums, newSize);
+		}
+	}
+
+	/**
+	 * @return The number of clusters.
+	 */
+	int getNumClusters() {
+		return counts.length;
+	}
+
+	/**
+	 * @return The number of clusters with at least one point.
+	 */
+	int getNumNonEmptyClusters() {
+
+		int nonEmpty = 0;
+		for (long count : counts) {
+			if (count > 0) {
+				nonEmpty++;
+			}
+		}
+		return nonEmpty;
+	}
+
+	/**
+	 * @return The scatter of each cluster, i.e. the mean distance of its points
+	 *         to its centroid, NaN for a cluster without points.
+	 */
+	double[] getScatter() {
+
+		double[] scatter = new double[counts.length];
+		for (int c = 0; c < counts.length; c++) {
+			scatter[c] = scatterSums[c] / counts[c];
+		}
+		return scatter;
+	}
+
+	/**
+	 * @return The centroids of the clusters, cluster c occupies the coordinates
+	 *         [c * d, (c + 1) * d).
+	 */
+	double[] getCentroids() {
+		return centroids;
+	}
+
+	/**
+	 * @return The number of coordinates of each point.
+	 */
+	int getDimensions() {
+		return dimensions;
+	}
+
+	/**
+	 * Computes the Davies-Bouldin index from the scatter of each cluster and the
+	 * Euclidean distances between the centroids, which takes O(k^2 * d) time.
+	 * The rows of the ratio matrix are computed in blocks on several threads,
+	 * the maximum of each row is independent of the blocks and the maxima are
+	 * summed in order, so the result does not depend on the number of threads.
+	 * Clusters with a NaN scatter have no points and are left out.
+	 *
+	 * @param scatter    The scatter of each cluster.
+	 * @param centroids  The centroids, cluster c occupies [c * d, (c + 1) * d).
+	 * @param dimensions The number of coordinates of each centroid.
+	 * @param pool       The thread pool of the execution, or null to compute on
+	 *                   the calling thread.
+	 * @return The Davies-Bouldin index.
+	 * @throws InterruptedException If the thread is interrupted.
+	 * @throws ExecutionException   If a block fails.
+	 */
+	public static double daviesBouldin(final double[] scatter, final double[] centroids, final int dimensions,
+			final ThreadPool pool) throws InterruptedException, ExecutionException {
+		return daviesBouldin(scatter, centroids, dimensions, pool, null);
+	}
+
+	/**
+	 * Computes the Davies-Bouldin index and collects the most similar partners
+	 * of each cluster.
+	 *
+	 * @param scatter    The scatter of each cluster.
+	 * @param centroids  The centroids, cluster c occupies [c * d, (c + 1) * d).
+	 * @param dimensions The number of coordinates of each centroid.
+	 * @param pool       The thread pool of the execution, or null to compute on
+	 *                   the calling thread.
+	 * @param pairs      The pairs to collect, or null if none are needed.
+	 * @return The Davies-Bouldin index.
+	 * @throws InterruptedException If the thread is interrupted.
+	 * @throws ExecutionException   If a block fails.
+	 */
+	static double daviesBouldin(final double[] scatter, final double[] centroids, final int dimensions,
+			final ThreadPool pool, final ClusterPairs pairs) throws InterruptedException, ExecutionException {
+
+		if (pairs != null) {
+			pairs.init(scatter);
+		}
+		int numClusters = scatter.length;
+		double[] maxR = new double[numClusters];
+		int numBlocks = Math.min(ParallelScan.getNumThreads(pool), numClusters);
+		if (numBlocks <= 1) {
+			maxRatios(scatter, centroids, dimensions, 0, numClusters, maxR, pairs);
+		} else {
+			List<Future<Void>> blocks = new ArrayList<Future<Void>>();
+			for (int b = 0; b < numBlocks; b++) {
+				int from = (int) ((long) numClusters * b / numBlocks);
+				int to = (int) ((long) numClusters * (b + 1) / numBlocks);
+				blocks.add(pool.enqueue(() -> {
+					maxRatios(scatter, centroids, dimensions, from, to, maxR, pairs);
+					return null;
+				}));
+			}
+			// The calling thread does not occupy a thread of the pool while it waits.
+			pool.runInvisible(() -> {
+				for (Future<Void> block : blocks) {
+					block.get();
+				}
+				return null;
+			});
+		}
+
+		double DB = 0.0;
+		int nonEmpty = 0;
+		for (int c = 0; c < numClusters; c++) {
+			if (!Double.isNaN(scatter[c])) {
+				DB += maxR[c];
+				nonEmpty++;
+			}
+		}
+		return DB / nonEmpty;
+	}
+
+	/**
+	 * Computes the largest ratio R = (S_i + S_j) / M_ij of each cluster i in a
+	 * block of rows.
+	 *
+	 * @param scatter    The scatter of each cluster.
+	 * @param centroids  The centroids, cluster c occupies [c * d, (c + 1) * d).
+	 * @param dimensions The number of coordinates of each centroid.
+	 * @param from       The first cluster of the block.
+	 * @param to         The cluster after the last one of the block.
+	 * @param maxR       The array the largest ratios are written to.
+	 * @param pairs      The pairs to collect, or null if none are needed.
+	 */
+	private static void maxRatios(final double[] scatter, final double[] centroids, final int dimensions,
+			final int from, final int to, final double[] maxR, final ClusterPairs pairs) {
+
+		int numClusters = scatter.length;
+		for (int c1 = from; c1 < to; c1++) {
+			if (Double.isNaN(scatter[c1])) {
+				continue;
+			}
+			double max = Double.MIN_VALUE;
+			for (int c2 = 0; c2 < numClusters; c2++) {
+				if (c1 != c2 && !Double.isNaN(scatter[c2])) {
+					double distance = 0.0;
+					for (int j = 0; j < dimensions; j++) {
+						double temp = centroids[c1 * dimensions + j] - centroids[c2 * dimensions + j];
+						distance += temp * temp;
+					}
+					double separation = Math.sqrt(distance);
+					double R = (scatter[c1] + scatter[c2]) / separation;
+					if (max < R) {
+						max = R;
+					}
+					if (pairs != null) {
+						pairs.offer(c1, c2, R, separation);
+					}
+				}
+			}
+			maxR[c1] = max;
+		}
+	}
+}
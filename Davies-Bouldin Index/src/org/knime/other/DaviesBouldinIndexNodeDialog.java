@@ -1,80 +1,148 @@
-package org.knime.other;
-
-import javax.swing.event.ChangeEvent;
-import javax.swing.event.ChangeListener;
-
-import org.knime.core.data.DoubleValue;
-import org.knime.core.data.StringValue;
-import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
-import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
-import org.knime.core.node.defaultnodesettings.DialogComponentColumnFilter;
-import org.knime.core.node.defaultnodesettings.DialogComponentColumnNameSelection;
-import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
-import org.knime.core.node.defaultnodesettings.DialogComponentNumberEdit;
-import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
-import org.knime.core.node.defaultnodesettings.SettingsModelColumnName;
-import org.knime.core.node.defaultnodesettings.SettingsModelDoubleBounded;
-import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
-import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
-
-/**
- * <code>NodeDialog</code> for the "DaviesBouldinIndex" Node.
- * This node computes the Davies-Bouldin index for evaluating clustering performance on a dataset.
- *
- * This node dialog derives from {@link DefaultNodeSettingsPane} which allows
- * creation of a simple dialog with standard components. If you need a more 
- * complex dialog please derive directly from 
- * {@link org.knime.core.node.NodeDialogPane}.
- * 
- * @author Rytis Kumpa
- */
-public class DaviesBouldinIndexNodeDialog extends DefaultNodeSettingsPane {
-
-    /**
-     * New pane for configuring DaviesBouldinIndex node dialog.
-     * This is just a suggestion to demonstrate possible default dialog
-     * components.
-     */
-	@SuppressWarnings("unchecked")
-	protected DaviesBouldinIndexNodeDialog() {
-        super();
-        addDialogComponent(new DialogComponentColumnFilter(
-				new SettingsModelFilterString(DaviesBouldinIndexNodeModel.CFGKEY_FILTER), 0, false, DoubleValue.class));
-
-		final String columnSelectLabel = "Column with cluster names:";
-		addDialogComponent(new DialogComponentColumnNameSelection(
-				new SettingsModelColumnName(DaviesBouldinIndexNodeModel.CFGKEY_CLUSTER, ""), columnSelectLabel, 0,
-				StringValue.class));
-
-		final String randomSamplingLabel = "Randomly sample a subset";
-		final SettingsModelBoolean m_randomSampling = new SettingsModelBoolean(
-				DaviesBouldinIndexNodeModel.CFGKEY_RANDOM, true);
-		addDialogComponent(new DialogComponentBoolean(m_randomSampling, randomSamplingLabel));
-
-		final String sampleSizeLabel = "Size of the sample:";
-		final SettingsModelDoubleBounded m_sampleRate = new SettingsModelDoubleBounded(
-				DaviesBouldinIndexNodeModel.CFGKEY_SAMPLERATE, 0.5, 0.001, 1.0);
-		addDialogComponent(new DialogComponentNumber(m_sampleRate, sampleSizeLabel, 0.1));
-
-		final String randomStateTitle = "Random seed:";
-		final SettingsModelInteger m_randomState = new SettingsModelInteger(DaviesBouldinIndexNodeModel.CFGKEY_STATE,
-				0);
-		addDialogComponent(new DialogComponentNumberEdit(m_randomState, randomStateTitle));
-
-		m_randomSampling.addChangeListener(new ChangeListener() {
-
-			@Override
-			public void stateChanged(ChangeEvent arg0) {
-				if (m_randomSampling.getBooleanValue()) {
-					m_sampleRate.setEnabled(true);
-					m_randomState.setEnabled(true);
-				} else {
-					m_sampleRate.setEnabled(false);
-					m_randomState.setEnabled(false);
-				}
-
-			}
-		});  
-    }
-}
-
+package org.knime.other;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
+import org.knime.core.node.defaultnodesettings.DialogComponentColumnFilter;
+import org.knime.core.node.defaultnodesettings.DialogComponentColumnNameSelection;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumberEdit;
+import org.knime.core.node.defaultnodesettings.DialogComponentStringSelection;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelColumnName;
+import org.knime.core.node.defaultnodesettings.SettingsModelDoubleBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+
+/**
+ * <code>NodeDialog</code> for the "DaviesBouldinIndex" Node.
+ * This node computes the Davies-Bouldin index for evaluating clustering performance on a dataset.
+ *
+ * This node dialog derives from {@link DefaultNodeSettingsPane} which allows
+ * creation of a simple dialog with standard components. If you need a more 
+ * complex dialog please derive directly from 
+ * {@link org.knime.core.node.NodeDialogPane}.
+ * 
+ * @author Rytis Kumpa
+ */
+public class DaviesBouldinIndexNodeDialog extends DefaultNodeSettingsPane {
+
+    /**
+     * New pane for configuring DaviesBouldinIndex node dialog.
+     * This is just a suggestion to demonstrate possible default dialog
+     * components.
+     */
+	@SuppressWarnings("unchecked")
+	protected DaviesBouldinIndexNodeDialog() {
+        super();
+        addDialogComponent(new DialogComponentColumnFilter(
+				new SettingsModelFilterString(DaviesBouldinIndexNodeModel.CFGKEY_FILTER), 0, false, DoubleValue.class));
+
+		final String columnSelectLabel = "Column with cluster names:";
+		addDialogComponent(new DialogComponentColumnNameSelection(
+				new SettingsModelColumnName(DaviesBouldinIndexNodeModel.CFGKEY_CLUSTER, ""), columnSelectLabel, 0,
+				StringValue.class));
+
+		final String scatterLabel = "Scatter measure:";
+		addDialogComponent(new DialogComponentStringSelection(
+				new SettingsModelString(DaviesBouldinIndexNodeModel.CFGKEY_SCATTER,
+						DaviesBouldinIndexNodeModel.SCATTER_MEAN),
+				scatterLabel, DaviesBouldinIndexNodeModel.SCATTERS));
+
+		final String randomSamplingLabel = "Randomly sample a subset";
+		final SettingsModelBoolean m_randomSampling = new SettingsModelBoolean(
+				DaviesBouldinIndexNodeModel.CFGKEY_RANDOM, true);
+		addDialogComponent(new DialogComponentBoolean(m_randomSampling, randomSamplingLabel));
+
+		final String sampleSizeLabel = "Size of the sample:";
+		final SettingsModelDoubleBounded m_sampleRate = new SettingsModelDoubleBounded(
+				DaviesBouldinIndexNodeModel.CFGKEY_SAMPLERATE, 0.5, 0.001, 1.0);
+		addDialogComponent(new DialogComponentNumber(m_sampleRate, sampleSizeLabel, 0.1));
+
+		final String randomStateTitle = "Random seed:";
+		final SettingsModelInteger m_randomState = new SettingsModelInteger(DaviesBouldinIndexNodeModel.CFGKEY_STATE,
+				0);
+		addDialogComponent(new DialogComponentNumberEdit(m_randomState, randomStateTitle));
+
+		final String pairsLabel = "Pairs per cluster:";
+		addDialogComponent(new DialogComponentNumber(
+				new SettingsModelIntegerBounded(DaviesBouldinIndexNodeModel.CFGKEY_PAIRS, 1, 1, Integer.MAX_VALUE),
+				pairsLabel, 1));
+
+		final String threadsLabel = "Number of threads:";
+		addDialogComponent(new DialogComponentNumber(
+				new SettingsModelIntegerBounded(DaviesBouldinIndexNodeModel.CFGKEY_THREADS,
+						Runtime.getRuntime().availableProcessors(), 1, Integer.MAX_VALUE),
+				threadsLabel, 1));
+
+		// The interval of the index over bootstrap replicates of the blocks of the data.
+		createNewGroup("Bootstrap interval");
+		final String replicatesLabel = "Bootstrap replicates:";
+		addDialogComponent(new DialogComponentNumber(
+				new SettingsModelIntegerBounded(DaviesBouldinIndexNodeModel.CFGKEY_REPLICATES, 0, 0, Integer.MAX_VALUE),
+				replicatesLabel, 100));
+
+		final String confidenceLabel = "Confidence level:";
+		addDialogComponent(new DialogComponentNumber(
+				new SettingsModelDoubleBounded(DaviesBouldinIndexNodeModel.CFGKEY_CONFIDENCE, 0.95, 0.5, 0.999),
+				confidenceLabel, 0.01));
+		closeCurrentGroup();
+
+		// The index of the batches seen so far, kept between the executions.
+		createNewGroup("Monitoring");
+		final String monitoringLabel = "Monitoring mode:";
+		final SettingsModelString m_monitoring = new SettingsModelString(
+				DaviesBouldinIndexNodeModel.CFGKEY_MONITORING, DaviesBouldinIndexNodeModel.MONITORING_NONE);
+		addDialogComponent(new DialogComponentStringSelection(m_monitoring, monitoringLabel,
+				DaviesBouldinIndexNodeModel.MONITORINGS));
+
+		final String decayLabel = "Decay factor:";
+		final SettingsModelDoubleBounded m_decay = new SettingsModelDoubleBounded(
+				DaviesBouldinIndexNodeModel.CFGKEY_DECAY, 0.9, 0.0, 1.0);
+		addDialogComponent(new DialogComponentNumber(m_decay, decayLabel, 0.05));
+
+		final String windowLabel = "Window size (batches):";
+		final SettingsModelIntegerBounded m_window = new SettingsModelIntegerBounded(
+				DaviesBouldinIndexNodeModel.CFGKEY_WINDOW, 10, 1, Integer.MAX_VALUE);
+		addDialogComponent(new DialogComponentNumber(m_window, windowLabel, 1));
+		closeCurrentGroup();
+
+		// Further clusterings of the same points, evaluated in the same scans.
+		createNewTab("Additional clusterings");
+		addDialogComponent(new DialogComponentColumnFilter(
+				new SettingsModelFilterString(DaviesBouldinIndexNodeModel.CFGKEY_SWEEP), 0, false, StringValue.class));
+
+		m_monitoring.addChangeListener(new ChangeListener() {
+
+			@Override
+			public void stateChanged(ChangeEvent arg0) {
+				m_decay.setEnabled(
+						DaviesBouldinIndexNodeModel.MONITORING_DECAY.equals(m_monitoring.getStringValue()));
+				m_window.setEnabled(
+						DaviesBouldinIndexNodeModel.MONITORING_WINDOW.equals(m_monitoring.getStringValue()));
+			}
+		});
+
+		m_randomSampling.addChangeListener(new ChangeListener() {
+
+			@Override
+			public void stateChanged(ChangeEvent arg0) {
+				if (m_randomSampling.getBooleanValue()) {
+					m_sampleRate.setEnabled(true);
+					m_randomState.setEnabled(true);
+				} else {
+					m_sampleRate.setEnabled(false);
+					m_randomState.setEnabled(false);
+				}
+
+			}
+		});  
+    }
+}
+
@@ -1,392 +1,1195 @@
-package org.knime.other;
-
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Random;
-import java.util.Set;
-import java.util.stream.Collectors;
-
-import org.knime.core.data.DataCell;
-import org.knime.core.data.DataColumnSpec;
-import org.knime.core.data.DataColumnSpecCreator;
-import org.knime.core.data.DataRow;
-import org.knime.core.data.DataTableSpec;
-import org.knime.core.data.DataTableSpecCreator;
-import org.knime.core.data.DoubleValue;
-import org.knime.core.data.MissingValue;
-import org.knime.core.data.MissingValueException;
-import org.knime.core.data.RowIterator;
-import org.knime.core.data.RowKey;
-import static org.knime.core.data.RowKey.createRowKey;
-import org.knime.core.data.container.DataContainer;
-import org.knime.core.data.def.DefaultRow;
-import org.knime.core.data.def.DoubleCell;
-import org.knime.core.node.BufferedDataContainer;
-import org.knime.core.node.BufferedDataTable;
-import org.knime.core.node.CanceledExecutionException;
-import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
-import org.knime.core.node.defaultnodesettings.SettingsModelColumnName;
-import org.knime.core.node.defaultnodesettings.SettingsModelDoubleBounded;
-import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
-import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
-import org.knime.core.node.ExecutionContext;
-import org.knime.core.node.ExecutionMonitor;
-import org.knime.core.node.InvalidSettingsException;
-import org.knime.core.node.NodeModel;
-import org.knime.core.node.NodeSettingsRO;
-import org.knime.core.node.NodeSettingsWO;
-
-/**
- * This is the model implementation of Davies-Bouldin Index. This node computes
- * the Davies-Bouldin index for evaluating clustering performance on a dataset.
- *
- * @author Rytis Kumpa
- */
-public class DaviesBouldinIndexNodeModel extends NodeModel {
-
-	// Configuration keys for retrieving the settings values
-	static final String CFGKEY_FILTER = "Include columns";
-	static final String CFGKEY_CLUSTER = "Cluster allocation";
-	static final String CFGKEY_RANDOM = "Random sampling";
-	static final String CFGKEY_SAMPLERATE = "Sample rate";
-	static final String CFGKEY_STATE = "Random state";
-
-	// Settings models
-	private final SettingsModelColumnName m_clusterColumn = new SettingsModelColumnName(CFGKEY_CLUSTER, "");
-
-	private final SettingsModelFilterString m_filterColumns = new SettingsModelFilterString(CFGKEY_FILTER);
-
-	private final SettingsModelBoolean m_randomSampling = new SettingsModelBoolean(CFGKEY_RANDOM, true);
-
-	private final SettingsModelDoubleBounded m_sampleRate = new SettingsModelDoubleBounded(CFGKEY_SAMPLERATE, 0.5, 0.0,
-			1.0);
-
-	private final SettingsModelInteger m_randomState = new SettingsModelInteger(CFGKEY_STATE, 0);
-
-	// Data containers for storing cluster information.
-	private HashMap<String, DataContainer> clusters = new HashMap<String, DataContainer>();
-
-	private HashMap<String, ArrayList<Double>> clusterCentroids = new HashMap<String, ArrayList<Double>>();
-
-	/**
-	 * Constructor for the node model.
-	 */
-	protected DaviesBouldinIndexNodeModel() {
-		super(1, 1);
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected BufferedDataTable[] execute(final BufferedDataTable[] inData, final ExecutionContext exec)
-			throws Exception {
-
-		DataTableSpec inTableSpec = inData[0].getDataTableSpec();
-
-		DataTableSpec outTableSpec = configure(new DataTableSpec[] { inTableSpec })[0];
-
-		BufferedDataContainer outputContainer = exec.createDataContainer(outTableSpec);
-
-		clusters = new HashMap<String, DataContainer>();
-
-		clusterCentroids = new HashMap<String, ArrayList<Double>>();
-
-		Random rand = new java.util.Random(m_randomState.getIntValue());
-
-		int clusterNameColumnID = inTableSpec.columnsToIndices(m_clusterColumn.getStringValue())[0];
-		int[] includeColumnID = inTableSpec
-				.columnsToIndices((String[]) m_filterColumns.getIncludeList().stream().toArray(String[]::new));
-
-		// The data is read and processed accordingly.
-		RowIterator rowIterator = inData[0].iterator();
-		while (rowIterator.hasNext()) {
-			exec.checkCanceled();
-			exec.setProgress(0.05 / 1.0, "Reading Data.");
-			double randomThreshold = 0.0;
-			DataRow currentRow = rowIterator.next();
-			if (m_randomSampling.getBooleanValue()) {
-				randomThreshold = m_sampleRate.getDoubleValue();
-			} else {
-				randomThreshold = 1.0;
-			}
-			// Only if the random value is lower than the threshold, we process the row.
-			if (randomThreshold >= rand.nextDouble()) {
-				DataCell[] newRow = new DataCell[includeColumnID.length];
-				String clusterName = currentRow.getCell(clusterNameColumnID).toString();
-				if (clusters.containsKey(clusterName)) {
-					for (int i = 0; i < includeColumnID.length; i++) {
-						DataCell cell = currentRow.getCell(includeColumnID[i]);
-						if (!cell.isMissing()) {
-							newRow[i] = cell;
-						} else {
-							throw new MissingValueException((MissingValue) cell);
-						}
-
-					}
-					RowKey rowKey = createRowKey(clusters.get(clusterName).size());
-					clusters.get(clusterName).addRowToTable(new DefaultRow(rowKey, newRow));
-				} else {
-					DataContainer container = exec.createDataContainer(createDataTableSpecs(inTableSpec));
-					clusters.put(clusterName, container);
-					for (int i = 0; i < includeColumnID.length; i++) {
-						DataCell cell = currentRow.getCell(includeColumnID[i]);
-						if (!cell.isMissing()) {
-							newRow[i] = cell;
-						} else {
-							throw new MissingValueException((MissingValue) cell);
-						}
-
-					}
-					RowKey rowKey = createRowKey(clusters.get(clusterName).size());
-					clusters.get(clusterName).addRowToTable(new DefaultRow(rowKey, newRow));
-				}
-			}
-			exec.setProgress(0.1 / 1.0, "Data read.");
-		}
-
-		// DataContainer has to be closed so that the stored information can be
-		// retrieved.
-		for (String cluster : clusters.keySet()) {
-			clusters.get(cluster).close();
-		}
-
-		// Cluster centroids are computed, so that closest clusters are found.
-		if (clusters.size() > 1) {
-			computeClusterCentroids();
-		} else {
-			throw new Exception("There have to be at least two clusters for Davies-Bouldin index to be computed.");
-		}
-
-		double DB = 0.0;
-
-		// Main loop for computing the Davies-Bouldin Index.
-		int i = 0;
-		for (String cluster : clusters.keySet()) {
-
-			exec.checkCanceled();
-			exec.setProgress((double) i / (double) clusters.size(), "Processing cluster: " + i);
-			i++;
-
-			double maxR = Double.MIN_VALUE;
-			Set<String> otherClusters = clusters.keySet().stream().collect(Collectors.toSet());
-			otherClusters.remove(cluster);
-			double S1 = computeScatterMeasure(clusterCentroids.get(cluster), clusters.get(cluster));
-
-			for (String otherCluster : otherClusters) {
-
-				exec.checkCanceled();
-
-				double S2 = computeScatterMeasure(clusterCentroids.get(otherCluster), clusters.get(otherCluster));
-				double M = clusterSeparationMeasure(clusterCentroids.get(cluster), clusterCentroids.get(otherCluster));
-				double R = (S1 + S2) / M;
-				if (maxR < R) {
-					maxR = R;
-				}
-			}
-			DB += maxR;
-		}
-
-		DB = DB / (double) clusters.size();
-
-		DataCell DBCell = new DoubleCell(DB);
-
-		outputContainer.addRowToTable(new DefaultRow("Row_1", DBCell));
-
-		outputContainer.close();
-
-		clusterCentroids = null;
-		clusters = null;
-
-		return new BufferedDataTable[] { outputContainer.getTable() };
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void reset() {
-		clusters = new HashMap<String, DataContainer>();
-		clusterCentroids = new HashMap<String, ArrayList<Double>>();
-	}
-
-	/**
-	 * Computes the Euclidian Distance for two points.
-	 * 
-	 * @param p1 - An ArrayList with double values for the point.
-	 * @param p2 - An ArrayList with double values for the other point.
-	 * @return Returns the distance as a double value.
-	 */
-	private double euclidianDistance(ArrayList<Double> p1, ArrayList<Double> p2) {
-
-		double distance = 0.0;
-
-		for (int i = 0; i < p1.size(); i++) {
-			double temp = p2.get(i) - p1.get(i);
-			distance += Math.pow(temp, 2.0);
-		}
-
-		return Math.sqrt(distance);
-	}
-
-	/**
-	 * Computes the cluster centroids for currently existing DataContainer in
-	 * clusters HashMap.
-	 */
-	private void computeClusterCentroids() {
-
-		for (String cluster : clusters.keySet().stream().toArray(String[]::new)) {
-
-			Iterator<DataRow> iter = clusters.get(cluster).getTable().iterator();
-
-			ArrayList<Double> center = iter.next().stream().map(x -> ((DoubleValue) x).getDoubleValue())
-					.collect(Collectors.toCollection(ArrayList::new));
-
-			while (iter.hasNext()) {
-				ArrayList<Double> point = iter.next().stream().map(x -> ((DoubleValue) x).getDoubleValue())
-						.collect(Collectors.toCollection(ArrayList::new));
-				for (int i = 0; i < point.size(); i++) {
-					center.set(i, point.get(i) + center.get(i));
-				}
-			}
-
-			center = center.stream().map(x -> (Double) x / clusters.get(cluster).size())
-					.collect(Collectors.toCollection(ArrayList::new));
-
-			clusterCentroids.put(cluster, center);
-		}
-	}
-
-	/**
-	 * Computes the scatter measure for the particular cluster, given its centroid.
-	 * 
-	 * @param centroid The centroid of the cluster.
-	 * @param cluster  All of the points in the cluster stored in a DataContainer.
-	 * @return Returns the computed scatter measure.
-	 */
-	private double computeScatterMeasure(ArrayList<Double> centroid, DataContainer cluster) {
-
-		RowIterator iterator = cluster.getTable().iterator();
-		double dist = 0.0;
-		long size = cluster.size();
-
-		while (iterator.hasNext()) {
-			ArrayList<Double> point = iterator.next().stream().map(x -> ((DoubleValue) x).getDoubleValue())
-					.collect(Collectors.toCollection(ArrayList::new));
-			dist += euclidianDistance(centroid, point);
-		}
-
-		return dist / (double) size;
-	}
-
-	/**
-	 * The sepation measure of two clusters. It can be computed by calculating the
-	 * Euclidian distance between the centroind of the clusters.
-	 * 
-	 * @param c1 The centroid of the first cluster.
-	 * @param c2 The centroid of the second cluster.
-	 * @return The double value of the separation measure.
-	 */
-	private double clusterSeparationMeasure(ArrayList<Double> c1, ArrayList<Double> c2) {
-		return euclidianDistance(c1, c2);
-	}
-
-	/**
-	 * Creates the DataTableSpec for the Data Containers that will be used for
-	 * computing the Silhouette Coefficient.
-	 * 
-	 * @param spec The DataTableSpec of the input table.
-	 * @return Returns the DataTableSpec of the table.
-	 */
-	private DataTableSpec createDataTableSpecs(DataTableSpec spec) {
-
-		DataTableSpecCreator specCreator = new DataTableSpecCreator();
-
-		for (String column : m_filterColumns.getIncludeList()) {
-			specCreator.addColumns(new DataColumnSpecCreator(column, DoubleCell.TYPE).createSpec());
-		}
-
-		return specCreator.createSpec();
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
-
-		if (m_filterColumns.getIncludeList().isEmpty()) {
-			throw new InvalidSettingsException("No numeric columns selected from input.");
-		}
-
-		DataColumnSpec[] colSpecs = new DataColumnSpec[1];
-		colSpecs[0] = new DataColumnSpecCreator("Davies-Bouldin Index", DoubleCell.TYPE).createSpec();
-		DataTableSpec outSpec = new DataTableSpec(colSpecs);
-
-		return new DataTableSpec[] { outSpec };
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void saveSettingsTo(final NodeSettingsWO settings) {
-
-		m_clusterColumn.saveSettingsTo(settings);
-		m_filterColumns.saveSettingsTo(settings);
-		m_randomState.saveSettingsTo(settings);
-		m_randomSampling.saveSettingsTo(settings);
-		m_sampleRate.saveSettingsTo(settings);
-
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
-
-		m_clusterColumn.loadSettingsFrom(settings);
-		m_filterColumns.loadSettingsFrom(settings);
-		m_randomSampling.loadSettingsFrom(settings);
-		m_randomState.loadSettingsFrom(settings);
-		m_sampleRate.loadSettingsFrom(settings);
-
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
-
-		m_clusterColumn.validateSettings(settings);
-		m_filterColumns.validateSettings(settings);
-		m_randomSampling.validateSettings(settings);
-		m_randomState.validateSettings(settings);
-		m_sampleRate.validateSettings(settings);
-
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void loadInternals(final File internDir, final ExecutionMonitor exec)
-			throws IOException, CanceledExecutionException {
-
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void saveInternals(final File internDir, final ExecutionMonitor exec)
-			throws IOException, CanceledExecutionException {
-
-	}
-
-}
+package org.knime.other;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.MissingValue;
+import org.knime.core.data.MissingValueException;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.defaultnodesettings.SettingsModel;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelColumnName;
+import org.knime.core.node.defaultnodesettings.SettingsModelDoubleBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.ModelContent;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.streamable.InputPortRole;
+import org.knime.core.node.streamable.MergeOperator;
+import org.knime.core.node.streamable.OutputPortRole;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.PortInput;
+import org.knime.core.node.streamable.PortObjectInput;
+import org.knime.core.node.streamable.PortOutput;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.streamable.RowOutput;
+import org.knime.core.node.streamable.StreamableOperator;
+import org.knime.core.node.streamable.StreamableOperatorInternals;
+import org.knime.core.node.streamable.simple.SimpleStreamableOperatorInternals;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * This is the model implementation of Davies-Bouldin Index. This node computes
+ * the Davies-Bouldin index for evaluating clustering performance on a dataset.
+ *
+ * @author Rytis Kumpa
+ */
+public class DaviesBouldinIndexNodeModel extends NodeModel {
+
+	// Configuration keys for retrieving the settings values
+	static final String CFGKEY_FILTER = "Include columns";
+	static final String CFGKEY_CLUSTER = "Cluster allocation";
+	static final String CFGKEY_RANDOM = "Random sampling";
+	static final String CFGKEY_SAMPLERATE = "Sample rate";
+	static final String CFGKEY_STATE = "Random state";
+	static final String CFGKEY_SCATTER = "Scatter measure";
+	static final String CFGKEY_THREADS = "Number of threads";
+	static final String CFGKEY_SWEEP = "Additional cluster columns";
+	static final String CFGKEY_PAIRS = "Pairs per cluster";
+	static final String CFGKEY_REPLICATES = "Bootstrap replicates";
+	static final String CFGKEY_CONFIDENCE = "Confidence level";
+	static final String CFGKEY_MONITORING = "Monitoring mode";
+	static final String CFGKEY_DECAY = "Decay factor";
+	static final String CFGKEY_WINDOW = "Window size";
+
+	// Scatter measures
+	static final String SCATTER_MEAN = "Mean distance (q=1)";
+	static final String SCATTER_RMS = "Root mean square distance (q=2)";
+	static final String[] SCATTERS = { SCATTER_MEAN, SCATTER_RMS };
+
+	// Monitoring modes
+	static final String MONITORING_NONE = "None";
+	static final String MONITORING_DECAY = "Exponential decay";
+	static final String MONITORING_WINDOW = "Sliding window";
+	static final String[] MONITORINGS = { MONITORING_NONE, MONITORING_DECAY, MONITORING_WINDOW };
+
+	// The file in the internals directory with the monitoring state
+	private static final String MONITORING_FILE = "monitoring.xml";
+
+	// Settings models
+	private final SettingsModelColumnName m_clusterColumn = new SettingsModelColumnName(CFGKEY_CLUSTER, "");
+
+	private final SettingsModelFilterString m_filterColumns = new SettingsModelFilterString(CFGKEY_FILTER);
+
+	private final SettingsModelBoolean m_randomSampling = new SettingsModelBoolean(CFGKEY_RANDOM, true);
+
+	private final SettingsModelDoubleBounded m_sampleRate = new SettingsModelDoubleBounded(CFGKEY_SAMPLERATE, 0.5, 0.0,
+			1.0);
+
+	private final SettingsModelInteger m_randomState = new SettingsModelInteger(CFGKEY_STATE, 0);
+
+	private final SettingsModelString m_scatter = new SettingsModelString(CFGKEY_SCATTER, SCATTER_MEAN);
+
+	private final SettingsModelIntegerBounded m_threads = new SettingsModelIntegerBounded(CFGKEY_THREADS,
+			Runtime.getRuntime().availableProcessors(), 1, Integer.MAX_VALUE);
+
+	private final SettingsModelFilterString m_sweepColumns = new SettingsModelFilterString(CFGKEY_SWEEP);
+
+	private final SettingsModelIntegerBounded m_numPairs = new SettingsModelIntegerBounded(CFGKEY_PAIRS, 1, 1,
+			Integer.MAX_VALUE);
+
+	private final SettingsModelIntegerBounded m_replicates = new SettingsModelIntegerBounded(CFGKEY_REPLICATES, 0,
+			0, Integer.MAX_VALUE);
+
+	private final SettingsModelDoubleBounded m_confidence = new SettingsModelDoubleBounded(CFGKEY_CONFIDENCE, 0.95,
+			0.5, 0.999);
+
+	private final SettingsModelString m_monitoring = new SettingsModelString(CFGKEY_MONITORING, MONITORING_NONE);
+
+	private final SettingsModelDoubleBounded m_decay = new SettingsModelDoubleBounded(CFGKEY_DECAY, 0.9, 0.0, 1.0);
+
+	private final SettingsModelIntegerBounded m_window = new SettingsModelIntegerBounded(CFGKEY_WINDOW, 10, 1,
+			Integer.MAX_VALUE);
+
+	// The cluster moments of the previous batches in the monitoring mode. It is
+	// kept when the node is reset, so that the next batch continues it.
+	private MonitoringState m_monitoringState = null;
+
+	/**
+	 * Constructor for the node model.
+	 */
+	protected DaviesBouldinIndexNodeModel() {
+		super(new PortType[] { BufferedDataTable.TYPE, BufferedDataTable.TYPE_OPTIONAL },
+				new PortType[] { BufferedDataTable.TYPE, BufferedDataTable.TYPE });
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected BufferedDataTable[] execute(final BufferedDataTable[] inData, final ExecutionContext exec)
+			throws Exception {
+
+		DataTableSpec inTableSpec = inData[0].getDataTableSpec();
+		DataTableSpec centroidTableSpec = inData[1] == null ? null : inData[1].getDataTableSpec();
+
+		DataTableSpec[] outTableSpecs = configure(new DataTableSpec[] { inTableSpec, centroidTableSpec });
+
+		if (!isMonitoring()) {
+			m_monitoringState = null;
+		}
+
+		BufferedDataContainer outputContainer = exec.createDataContainer(outTableSpecs[0]);
+		BufferedDataContainer pairsContainer = exec.createDataContainer(outTableSpecs[1]);
+
+		int clusterNameColumnID = inTableSpec.columnsToIndices(m_clusterColumn.getStringValue())[0];
+		int[] includeColumnID = inTableSpec
+				.columnsToIndices((String[]) m_filterColumns.getIncludeList().stream().toArray(String[]::new));
+
+		// The main cluster column comes first, all columns are evaluated in the
+		// same scans.
+		String[] sweepColumns = m_sweepColumns.getIncludeList().stream().toArray(String[]::new);
+		String[] clusterColumns = new String[sweepColumns.length + 1];
+		clusterColumns[0] = m_clusterColumn.getStringValue();
+		System.arraycopy(sweepColumns, 0, clusterColumns, 1, sweepColumns.length);
+		int[] clusterColumnIDs = inTableSpec.columnsToIndices(clusterColumns);
+
+		// The centroids of the clustering node make the centroid pass unnecessary.
+		Centroids centroids = inData[1] == null ? null : readCentroids(inData[1]);
+
+		// The worst partners of the clusters of the main cluster column.
+		ClusterPairs pairs = new ClusterPairs(m_numPairs.getIntValue());
+
+		ThreadPool pool = createThreadPool();
+		double[] DB;
+		double[] interval = null;
+		if (isMonitoring()) {
+			ClusterMoments batch = scanMoments(inData[0], new int[] { clusterNameColumnID }, includeColumnID, pool,
+					exec)[0];
+			DB = new double[] { computeMonitoredIndex(batch, pairs, pool) };
+		} else if (m_replicates.getIntValue() > 0) {
+			double[] estimate = computeBootstrapIndex(inData[0], clusterNameColumnID, includeColumnID, pairs, pool,
+					exec);
+			DB = new double[] { estimate[0] };
+			interval = new double[] { estimate[1], estimate[2] };
+		} else if (SCATTER_RMS.equals(m_scatter.getStringValue())) {
+			DB = computeRmsIndex(inData[0], clusterColumns, clusterColumnIDs, includeColumnID, centroids, pairs,
+					pool, exec);
+		} else if (centroids != null) {
+			DB = new double[] { computeMeanDistanceIndex(inData[0], clusterNameColumnID, includeColumnID, centroids,
+					pairs, pool, exec) };
+		} else {
+			DB = computeMeanDistanceIndex(inData[0], clusterColumns, clusterColumnIDs, includeColumnID, pairs, pool,
+					exec);
+		}
+
+		DataCell DBCell = new DoubleCell(DB[0]);
+
+		if (interval != null) {
+			outputContainer.addRowToTable(
+					new DefaultRow("Row_1", DBCell, new DoubleCell(interval[0]), new DoubleCell(interval[1])));
+		} else {
+			outputContainer.addRowToTable(new DefaultRow("Row_1", DBCell));
+		}
+		for (int l = 0; l < sweepColumns.length; l++) {
+			outputContainer.addRowToTable(new DefaultRow(sweepColumns[l], new DoubleCell(DB[l + 1])));
+		}
+
+		outputContainer.close();
+
+		for (DataRow row : pairs.createRows()) {
+			pairsContainer.addRowToTable(row);
+		}
+		pairsContainer.close();
+
+		return new BufferedDataTable[] { outputContainer.getTable(), pairsContainer.getTable() };
+	}
+
+	/**
+	 * Computes the Davies-Bouldin index with the mean distance of the points to
+	 * their centroid as the scatter (q = 1). This needs two passes, the first for
+	 * the centroids and the second for the distances to them. The statistics of
+	 * all cluster columns are filled in the same passes.
+	 * 
+	 * @param table            The input table.
+	 * @param clusterColumns   The names of the columns with the cluster names.
+	 * @param clusterColumnIDs The indices of the columns with the cluster names.
+	 * @param includeColumnID  The indices of the columns with the coordinates.
+	 * @param pairs            The pairs collected for the first column.
+	 * @param pool             The thread pool of the execution.
+	 * @param exec             The execution context.
+	 * @return The Davies-Bouldin index of each cluster column.
+	 * @throws Exception If a column has less than two clusters or the execution
+	 *                   is canceled.
+	 */
+	private double[] computeMeanDistanceIndex(final BufferedDataTable table, final String[] clusterColumns,
+			final int[] clusterColumnIDs, final int[] includeColumnID, final ClusterPairs pairs,
+			final ThreadPool pool, final ExecutionContext exec) throws Exception {
+
+		int dimensions = includeColumnID.length;
+		int numLabellings = clusterColumnIDs.length;
+		ClusterLabels[] labels = new ClusterLabels[numLabellings];
+		for (int l = 0; l < numLabellings; l++) {
+			labels[l] = new ClusterLabels();
+		}
+		ClusterStatistics[] statistics;
+		int[] clusters = new int[numLabellings];
+		double[] point = new double[dimensions];
+		double size = table.size();
+		long i = 0;
+
+		// First pass: the sum and size of each cluster. The data is read directly
+		// into primitive arrays, nothing is buffered, and summed on the worker
+		// threads.
+		Random rand = new Random(m_randomState.getIntValue());
+		try (ParallelScan<ClusterStatistics[]> scan = new ParallelScan<ClusterStatistics[]>(pool, dimensions,
+				numLabellings, () -> {
+					ClusterStatistics[] partial = new ClusterStatistics[numLabellings];
+					for (int l = 0; l < numLabellings; l++) {
+						partial[l] = new ClusterStatistics(dimensions);
+					}
+					return partial;
+				}, (partial, chunkClusters, points, chunkSize) -> {
+					for (int l = 0; l < numLabellings; l++) {
+						partial[l].addToCentroid(chunkClusters[l], points, chunkSize);
+					}
+				})) {
+			for (DataRow row : table) {
+				exec.checkCanceled();
+				exec.setProgress(i++ / size * 0.5, "Computing cluster centroids.");
+				// Only if the random value is lower than the threshold, we process the row.
+				if (isSampled(rand)) {
+					readPoint(row, includeColumnID, point);
+					for (int l = 0; l < numLabellings; l++) {
+						clusters[l] = labels[l].intern(row.getCell(clusterColumnIDs[l]).toString());
+					}
+					scan.add(clusters, point);
+				}
+			}
+			statistics = merge(scan.finish(), ClusterStatistics::merge);
+		}
+
+		for (int l = 0; l < numLabellings; l++) {
+			if (labels[l].size() < 2) {
+				throw new Exception("There have to be at least two clusters in column \"" + clusterColumns[l]
+						+ "\" for Davies-Bouldin index to be computed.");
+			}
+			statistics[l].computeCentroids(labels[l].size());
+		}
+
+		// Second pass: the distance of each point to its centroid. The random
+		// generator is reset, so exactly the same rows are sampled again.
+		rand = new Random(m_randomState.getIntValue());
+		i = 0;
+		try (ParallelScan<ClusterStatistics[]> scan = new ParallelScan<ClusterStatistics[]>(pool, dimensions,
+				numLabellings, () -> {
+					ClusterStatistics[] partial = new ClusterStatistics[numLabellings];
+					for (int l = 0; l < numLabellings; l++) {
+						partial[l] = statistics[l].createScatterPartial();
+					}
+					return partial;
+				}, (partial, chunkClusters, points, chunkSize) -> {
+					for (int l = 0; l < numLabellings; l++) {
+						partial[l].addToScatter(chunkClusters[l], points, chunkSize);
+					}
+				})) {
+			for (DataRow row : table) {
+				exec.checkCanceled();
+				exec.setProgress(0.5 + i++ / size * 0.5, "Computing cluster scatter.");
+				if (isSampled(rand)) {
+					readPoint(row, includeColumnID, point);
+					for (int l = 0; l < numLabellings; l++) {
+						clusters[l] = labels[l].getID(row.getCell(clusterColumnIDs[l]).toString());
+					}
+					scan.add(clusters, point);
+				}
+			}
+			for (ClusterStatistics[] partial : scan.finish()) {
+				for (int l = 0; l < numLabellings; l++) {
+					statistics[l].merge(partial[l]);
+				}
+			}
+		}
+
+		double[] DB = new double[numLabellings];
+		for (int l = 0; l < numLabellings; l++) {
+			DB[l] = ClusterStatistics.daviesBouldin(statistics[l].getScatter(), statistics[l].getCentroids(),
+					dimensions, pool, l == 0 ? pairs : null);
+		}
+		pairs.setLabels(labels[0]);
+		return DB;
+	}
+
+	/**
+	 * Computes the Davies-Bouldin index with the mean distance of the points to
+	 * the given centroids as the scatter (q = 1). Since the centroids are known,
+	 * one pass over the data is enough.
+	 * 
+	 * @param table               The input table.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param centroids           The centroids of the clusters.
+	 * @param pairs               The pairs to collect.
+	 * @param pool                The thread pool of the execution.
+	 * @param exec                The execution context.
+	 * @return The Davies-Bouldin index.
+	 * @throws Exception If a cluster has no centroid, there are less than two
+	 *                   clusters with points or the execution is canceled.
+	 */
+	private double computeMeanDistanceIndex(final BufferedDataTable table, final int clusterNameColumnID,
+			final int[] includeColumnID, final Centroids centroids, final ClusterPairs pairs,
+			final ThreadPool pool, final ExecutionContext exec) throws Exception {
+
+		int dimensions = includeColumnID.length;
+		ClusterLabels labels = centroids.getLabels();
+		ClusterStatistics statistics = new ClusterStatistics(dimensions);
+		statistics.setCentroids(centroids.getCoordinates(), labels.size());
+		double[] point = new double[dimensions];
+		double size = table.size();
+		long i = 0;
+
+		Random rand = new Random(m_randomState.getIntValue());
+		try (ParallelScan<ClusterStatistics> scan = new ParallelScan<ClusterStatistics>(pool, dimensions,
+				statistics::createScatterPartial,
+				(partial, clusters, points, chunkSize) -> partial.addToScatter(clusters[0], points, chunkSize))) {
+			for (DataRow row : table) {
+				exec.checkCanceled();
+				exec.setProgress(i++ / size, "Computing cluster scatter.");
+				if (isSampled(rand)) {
+					String clusterName = row.getCell(clusterNameColumnID).toString();
+					int cluster = labels.getID(clusterName);
+					if (cluster < 0) {
+						throw new Exception("No centroid for cluster \"" + clusterName + "\".");
+					}
+					readPoint(row, includeColumnID, point);
+					scan.add(cluster, point);
+				}
+			}
+			for (ClusterStatistics partial : scan.finish()) {
+				statistics.merge(partial);
+			}
+		}
+
+		if (statistics.getNumNonEmptyClusters() < 2) {
+			throw new Exception("There have to be at least two clusters for Davies-Bouldin index to be computed.");
+		}
+		pairs.setLabels(labels);
+		return ClusterStatistics.daviesBouldin(statistics.getScatter(), statistics.getCentroids(), dimensions,
+				pool, pairs);
+	}
+
+	/**
+	 * Computes the Davies-Bouldin index with the root mean square distance of the
+	 * points to their centroid as the scatter (q = 2). The scatter follows from
+	 * the moments of each cluster, so one pass is enough for all cluster columns.
+	 * 
+	 * @param table            The input table.
+	 * @param clusterColumns   The names of the columns with the cluster names.
+	 * @param clusterColumnIDs The indices of the columns with the cluster names.
+	 * @param includeColumnID  The indices of the columns with the coordinates.
+	 * @param centroids        The given centroids of the clusters of the first
+	 *                         column, or null if the means of the clusters are
+	 *                         used.
+	 * @param pairs            The pairs collected for the first column.
+	 * @param pool             The thread pool of the execution.
+	 * @param exec             The execution context.
+	 * @return The Davies-Bouldin index of each cluster column.
+	 * @throws Exception If a column has less than two clusters or the execution
+	 *                   is canceled.
+	 */
+	private double[] computeRmsIndex(final BufferedDataTable table, final String[] clusterColumns,
+			final int[] clusterColumnIDs, final int[] includeColumnID, final Centroids centroids,
+			final ClusterPairs pairs, final ThreadPool pool, final ExecutionContext exec) throws Exception {
+
+		ClusterMoments[] moments = scanMoments(table, clusterColumnIDs, includeColumnID, pool, exec);
+		int numLabellings = clusterColumnIDs.length;
+		double[] DB = new double[numLabellings];
+		for (int l = 0; l < numLabellings; l++) {
+			if (moments[l].getNumClusters() < 2) {
+				throw new Exception("There have to be at least two clusters in column \"" + clusterColumns[l]
+						+ "\" for Davies-Bouldin index to be computed.");
+			}
+			DB[l] = l == 0 ? computeRmsIndex(moments[l], centroids, pairs, pool)
+					: computeRmsIndex(moments[l], null, null, pool);
+		}
+		return DB;
+	}
+
+	/**
+	 * Collects the moments of the clusters of each cluster column in one pass.
+	 * 
+	 * @param table            The input table.
+	 * @param clusterColumnIDs The indices of the columns with the cluster names.
+	 * @param includeColumnID  The indices of the columns with the coordinates.
+	 * @param pool             The thread pool of the execution.
+	 * @param exec             The execution context.
+	 * @return The moments of each cluster column.
+	 * @throws Exception If the execution is canceled.
+	 */
+	private ClusterMoments[] scanMoments(final BufferedDataTable table, final int[] clusterColumnIDs,
+			final int[] includeColumnID, final ThreadPool pool, final ExecutionContext exec) throws Exception {
+
+		int dimensions = includeColumnID.length;
+		int numLabellings = clusterColumnIDs.length;
+		ClusterLabels[] labels = new ClusterLabels[numLabellings];
+		for (int l = 0; l < numLabellings; l++) {
+			labels[l] = new ClusterLabels();
+		}
+		ClusterMoments[] moments;
+		int[] clusters = new int[numLabellings];
+		double[] point = new double[dimensions];
+		double size = table.size();
+		long i = 0;
+
+		// The labels are shared, the workers only see the cluster IDs.
+		Random rand = new Random(m_randomState.getIntValue());
+		try (ParallelScan<ClusterMoments[]> scan = new ParallelScan<ClusterMoments[]>(pool, dimensions,
+				numLabellings, () -> {
+					ClusterMoments[] partial = new ClusterMoments[numLabellings];
+					for (int l = 0; l < numLabellings; l++) {
+						partial[l] = new ClusterMoments(dimensions, labels[l]);
+					}
+					return partial;
+				}, (partial, chunkClusters, points, chunkSize) -> {
+					for (int l = 0; l < numLabellings; l++) {
+						partial[l].add(chunkClusters[l], points, chunkSize);
+					}
+				})) {
+			for (DataRow row : table) {
+				exec.checkCanceled();
+				exec.setProgress(i++ / size, "Computing cluster moments.");
+				if (isSampled(rand)) {
+					readPoint(row, includeColumnID, point);
+					for (int l = 0; l < numLabellings; l++) {
+						clusters[l] = labels[l].intern(row.getCell(clusterColumnIDs[l]).toString());
+					}
+					scan.add(clusters, point);
+				}
+			}
+			moments = merge(scan.finish(), ClusterMoments::merge);
+		}
+		return moments;
+	}
+
+	/**
+	 * Adds the moments of a batch to the monitoring state and computes the
+	 * Davies-Bouldin index of the state with the root mean square scatter. The
+	 * state is started anew if it was created for other columns or another mode.
+	 * 
+	 * @param batch The moments of the new batch.
+	 * @param pairs The pairs to collect.
+	 * @param pool  The thread pool of the execution.
+	 * @return The Davies-Bouldin index of the decayed moments or of the window.
+	 * @throws Exception If the state has less than two clusters.
+	 */
+	private double computeMonitoredIndex(final ClusterMoments batch, final ClusterPairs pairs,
+			final ThreadPool pool) throws Exception {
+
+		String signature = m_monitoring.getStringValue() + "\n" + m_clusterColumn.getStringValue() + "\n"
+				+ String.join("\n", m_filterColumns.getIncludeList());
+		if (m_monitoringState != null && !m_monitoringState.matches(signature)) {
+			setWarningMessage("The monitoring state was started anew, since the columns or the mode have changed.");
+			m_monitoringState = null;
+		}
+		if (m_monitoringState == null) {
+			m_monitoringState = new MonitoringState(signature, batch.getDimensions(),
+					MONITORING_DECAY.equals(m_monitoring.getStringValue()));
+		}
+		m_monitoringState.add(batch, m_decay.getDoubleValue(), m_window.getIntValue());
+
+		double[] scatter = m_monitoringState.getRmsScatter();
+		int nonEmpty = 0;
+		for (double s : scatter) {
+			if (!Double.isNaN(s)) {
+				nonEmpty++;
+			}
+		}
+		if (nonEmpty < 2) {
+			throw new Exception(
+					"There have to be at least two clusters in the monitored data for Davies-Bouldin index to be computed.");
+		}
+		pairs.setLabels(m_monitoringState.getLabels());
+		return ClusterStatistics.daviesBouldin(scatter, m_monitoringState.getCentroids(), batch.getDimensions(),
+				pool, pairs);
+	}
+
+	/**
+	 * @return A pool with the selected number of threads, drawn from the global
+	 *         thread pool of KNIME. It is created once per execution and shared
+	 *         by its scans and computations.
+	 */
+	private ThreadPool createThreadPool() {
+		return KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool(m_threads.getIntValue());
+	}
+
+	/**
+	 * @return True if the batches are monitored between executions.
+	 */
+	private boolean isMonitoring() {
+		return !MONITORING_NONE.equals(m_monitoring.getStringValue());
+	}
+
+	/**
+	 * Computes the Davies-Bouldin index of the main cluster column together with
+	 * a bootstrap percentile interval. The statistics are collected per block of
+	 * the data in the same scans as the index, and the replicates resample the
+	 * blocks. With the mean distance scatter, the distances are measured to the
+	 * centroids of all data, while the centroids of a replicate follow from its
+	 * blocks.
+	 * 
+	 * @param table               The input table.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param pairs               The pairs to collect.
+	 * @param pool                The thread pool of the execution.
+	 * @param exec                The execution context.
+	 * @return The index, the lower and the upper bound of the interval.
+	 * @throws Exception If there are less than two clusters or the execution is
+	 *                   canceled.
+	 */
+	private double[] computeBootstrapIndex(final BufferedDataTable table, final int clusterNameColumnID,
+			final int[] includeColumnID, final ClusterPairs pairs, final ThreadPool pool,
+			final ExecutionContext exec) throws Exception {
+
+		int dimensions = includeColumnID.length;
+		int numWorkers = ParallelScan.getNumThreads(pool);
+		boolean rms = SCATTER_RMS.equals(m_scatter.getStringValue());
+		double passes = rms ? 1.0 : 2.0;
+		ClusterLabels labels = new ClusterLabels();
+		double[] point = new double[dimensions];
+		double size = table.size();
+		long i = 0;
+
+		// The first labelling is the cluster of a point, the second its block.
+		int[] clusterAndBlock = new int[2];
+		long sampled = 0;
+
+		// The first pass collects the centroid sums or the moments of each block.
+		List<ClusterStatistics> sumBlocks = null;
+		List<ClusterMoments> momentBlocks = null;
+		Random rand = new Random(m_randomState.getIntValue());
+		if (rms) {
+			try (ParallelScan<Bootstrap.Blocks<ClusterMoments>> scan = new ParallelScan<Bootstrap.Blocks<ClusterMoments>>(
+					pool, dimensions, 2,
+					() -> new Bootstrap.Blocks<ClusterMoments>(numWorkers, () -> new ClusterMoments(dimensions, labels)),
+					(partial, clusters, points, chunkSize) -> {
+						for (int p = 0; p < chunkSize; p++) {
+							partial.get(clusters[1][p]).add(clusters[0][p], points, p * dimensions);
+						}
+					})) {
+				for (DataRow row : table) {
+					exec.checkCanceled();
+					exec.setProgress(i++ / size / passes, "Computing cluster moments.");
+					if (isSampled(rand)) {
+						readPoint(row, includeColumnID, point);
+						clusterAndBlock[0] = labels.intern(row.getCell(clusterNameColumnID).toString());
+						clusterAndBlock[1] = Bootstrap.blockOf(sampled++);
+						scan.add(clusterAndBlock, point, Bootstrap.workerOf(clusterAndBlock[1], numWorkers));
+					}
+				}
+				momentBlocks = Bootstrap.Blocks.collect(scan.finish());
+			}
+		} else {
+			try (ParallelScan<Bootstrap.Blocks<ClusterStatistics>> scan = new ParallelScan<Bootstrap.Blocks<ClusterStatistics>>(
+					pool, dimensions, 2,
+					() -> new Bootstrap.Blocks<ClusterStatistics>(numWorkers, () -> new ClusterStatistics(dimensions)),
+					(partial, clusters, points, chunkSize) -> {
+						for (int p = 0; p < chunkSize; p++) {
+							partial.get(clusters[1][p]).addToCentroid(clusters[0][p], points, p * dimensions);
+						}
+					})) {
+				for (DataRow row : table) {
+					exec.checkCanceled();
+					exec.setProgress(i++ / size / passes, "Computing cluster centroids.");
+					if (isSampled(rand)) {
+						readPoint(row, includeColumnID, point);
+						clusterAndBlock[0] = labels.intern(row.getCell(clusterNameColumnID).toString());
+						clusterAndBlock[1] = Bootstrap.blockOf(sampled++);
+						scan.add(clusterAndBlock, point, Bootstrap.workerOf(clusterAndBlock[1], numWorkers));
+					}
+				}
+				sumBlocks = Bootstrap.Blocks.collect(scan.finish());
+			}
+		}
+
+		int numClusters = labels.size();
+		if (numClusters < 2) {
+			throw new Exception("There have to be at least two clusters for Davies-Bouldin index to be computed.");
+		}
+		int numBlocks = rms ? momentBlocks.size() : sumBlocks.size();
+
+		Bootstrap.Replicate replicate;
+		double DB;
+		if (rms) {
+			List<ClusterMoments> blocks = momentBlocks;
+			ClusterMoments moments = new ClusterMoments(dimensions, labels);
+			for (ClusterMoments block : blocks) {
+				moments.merge(block);
+			}
+			DB = computeRmsIndex(moments, null, pairs, pool);
+			replicate = drawn -> {
+				ClusterMoments sample = new ClusterMoments(dimensions, labels);
+				for (int b : drawn) {
+					sample.merge(blocks.get(b));
+				}
+				return replicateIndex(sample.getRmsScatter(), sample.getCentroids(), dimensions);
+			};
+		} else {
+			ClusterStatistics statistics = new ClusterStatistics(dimensions);
+			for (ClusterStatistics block : sumBlocks) {
+				statistics.merge(block);
+			}
+			statistics.computeCentroids(numClusters);
+
+			// The second pass collects the distance sums of each block, the same
+			// rows are sampled again and go to the same blocks as in the first pass.
+			List<ClusterStatistics> scatterBlocks;
+			rand = new Random(m_randomState.getIntValue());
+			i = 0;
+			sampled = 0;
+			try (ParallelScan<Bootstrap.Blocks<ClusterStatistics>> scan = new ParallelScan<Bootstrap.Blocks<ClusterStatistics>>(
+					pool, dimensions, 2,
+					() -> new Bootstrap.Blocks<ClusterStatistics>(numWorkers, statistics::createScatterPartial),
+					(partial, clusters, points, chunkSize) -> {
+						for (int p = 0; p < chunkSize; p++) {
+							partial.get(clusters[1][p]).addToScatter(clusters[0][p], points, p * dimensions);
+						}
+					})) {
+				for (DataRow row : table) {
+					exec.checkCanceled();
+					exec.setProgress(0.5 + i++ / size * 0.5, "Computing cluster scatter.");
+					if (isSampled(rand)) {
+						readPoint(row, includeColumnID, point);
+						clusterAndBlock[0] = labels.getID(row.getCell(clusterNameColumnID).toString());
+						clusterAndBlock[1] = Bootstrap.blockOf(sampled++);
+						scan.add(clusterAndBlock, point, Bootstrap.workerOf(clusterAndBlock[1], numWorkers));
+					}
+				}
+				scatterBlocks = Bootstrap.Blocks.collect(scan.finish());
+			}
+			for (ClusterStatistics block : scatterBlocks) {
+				statistics.merge(block);
+			}
+			pairs.setLabels(labels);
+			DB = ClusterStatistics.daviesBouldin(statistics.getScatter(), statistics.getCentroids(), dimensions,
+					pool, pairs);
+
+			List<ClusterStatistics> blocks = sumBlocks;
+			replicate = drawn -> {
+				ClusterStatistics sample = new ClusterStatistics(dimensions);
+				for (int b : drawn) {
+					sample.merge(blocks.get(b));
+				}
+				sample.computeCentroids(numClusters);
+				for (int b : drawn) {
+					sample.merge(scatterBlocks.get(b));
+				}
+				return replicateIndex(sample.getScatter(), sample.getCentroids(), dimensions);
+			};
+		}
+
+		exec.setMessage("Computing bootstrap replicates.");
+		double[] values = Bootstrap.run(m_replicates.getIntValue(), numBlocks, m_randomState.getIntValue(),
+				pool, replicate, exec);
+		double[] interval = Bootstrap.percentileInterval(values, m_confidence.getDoubleValue());
+		return new double[] { DB, interval[0], interval[1] };
+	}
+
+	/**
+	 * @param scatter    The scatter of each cluster of a replicate, NaN for a
+	 *                   cluster without points.
+	 * @param centroids  The centroids, cluster c occupies [c * d, (c + 1) * d).
+	 * @param dimensions The number of coordinates of each centroid.
+	 * @return The Davies-Bouldin index of the replicate, NaN if less than two
+	 *         clusters were drawn.
+	 * @throws Exception If the computation fails.
+	 */
+	private static double replicateIndex(final double[] scatter, final double[] centroids, final int dimensions)
+			throws Exception {
+
+		int nonEmpty = 0;
+		for (double s : scatter) {
+			if (!Double.isNaN(s)) {
+				nonEmpty++;
+			}
+		}
+		if (nonEmpty < 2) {
+			return Double.NaN;
+		}
+		return ClusterStatistics.daviesBouldin(scatter, centroids, dimensions, null);
+	}
+
+	/**
+	 * Merges the partial results of a scan in worker order, each labelling
+	 * separately.
+	 *
+	 * @param <A>      The type of the partial results.
+	 * @param partials The partial results of each worker, one per labelling.
+	 * @param merger   Adds the second partial result to the first.
+	 * @return The merged results, one per labelling.
+	 */
+	private static <A> A[] merge(final List<A[]> partials, final BiConsumer<A, A> merger) {
+
+		A[] merged = partials.get(0);
+		for (int t = 1; t < partials.size(); t++) {
+			for (int l = 0; l < merged.length; l++) {
+				merger.accept(merged[l], partials.get(t)[l]);
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * @param moments   The moments of all clusters.
+	 * @param centroids The given centroids of the clusters, or null if the means
+	 *                  of the clusters are used.
+	 * @param pairs     The pairs to collect, or null if none are needed.
+	 * @param pool      The thread pool of the execution.
+	 * @return The Davies-Bouldin index with the root mean square scatter.
+	 * @throws Exception If there are less than two clusters.
+	 */
+	private double computeRmsIndex(final ClusterMoments moments, final Centroids centroids,
+			final ClusterPairs pairs, final ThreadPool pool) throws Exception {
+
+		if (moments.getNumClusters() < 2) {
+			throw new Exception("There have to be at least two clusters for Davies-Bouldin index to be computed.");
+		}
+		if (pairs != null) {
+			pairs.setLabels(moments.getLabels());
+		}
+		if (centroids == null) {
+			return ClusterStatistics.daviesBouldin(moments.getRmsScatter(), moments.getCentroids(),
+					moments.getDimensions(), pool, pairs);
+		}
+		double[] arranged = centroids.arrange(moments.getLabels());
+		return ClusterStatistics.daviesBouldin(moments.getRmsScatter(arranged), arranged, moments.getDimensions(),
+				pool, pairs);
+	}
+
+	/**
+	 * @param centroidTable The table with one centroid per row.
+	 * @return The centroids for the selected columns.
+	 * @throws InvalidSettingsException If the table lacks a selected column.
+	 */
+	private Centroids readCentroids(final BufferedDataTable centroidTable) throws InvalidSettingsException {
+		return Centroids.read(centroidTable, m_clusterColumn.getStringValue(),
+				(String[]) m_filterColumns.getIncludeList().stream().toArray(String[]::new));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void reset() {
+		// The monitoring state is kept, so that the next batch continues it.
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public InputPortRole[] getInputPortRoles() {
+		// Only the root mean square scatter of a single cluster column can be
+		// computed in one pass over separate chunks of the data. The centroid
+		// table is small and read as a whole.
+		if (SCATTER_RMS.equals(m_scatter.getStringValue()) && m_sweepColumns.getIncludeList().isEmpty()
+				&& m_replicates.getIntValue() == 0) {
+			return new InputPortRole[] { InputPortRole.DISTRIBUTED_STREAMABLE,
+					InputPortRole.NONDISTRIBUTED_NONSTREAMABLE };
+		}
+		return new InputPortRole[] { InputPortRole.NONDISTRIBUTED_NONSTREAMABLE,
+				InputPortRole.NONDISTRIBUTED_NONSTREAMABLE };
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public OutputPortRole[] getOutputPortRoles() {
+		return new OutputPortRole[] { OutputPortRole.NONDISTRIBUTED, OutputPortRole.NONDISTRIBUTED };
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public StreamableOperator createStreamableOperator(final PartitionInfo partitionInfo,
+			final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+
+		DataTableSpec inTableSpec = (DataTableSpec) inSpecs[0];
+		int clusterNameColumnID = inTableSpec.findColumnIndex(m_clusterColumn.getStringValue());
+		int[] includeColumnID = inTableSpec
+				.columnsToIndices((String[]) m_filterColumns.getIncludeList().stream().toArray(String[]::new));
+
+		return new StreamableOperator() {
+
+			private final ClusterMoments moments = new ClusterMoments(includeColumnID.length);
+
+			private Centroids centroids = null;
+
+			@Override
+			public void runFinal(final PortInput[] inputs, final PortOutput[] outputs, final ExecutionContext exec)
+					throws Exception {
+
+				RowInput input = (RowInput) inputs[0];
+				double[] point = new double[includeColumnID.length];
+				// Each partition samples with its own generator, a single partition
+				// samples the same rows as the execution without streaming.
+				Random rand = new Random(m_randomState.getIntValue() + partitionInfo.getPartitionIndex());
+				DataRow row;
+				while ((row = input.poll()) != null) {
+					exec.checkCanceled();
+					if (isSampled(rand)) {
+						readPoint(row, includeColumnID, point);
+						moments.add(row.getCell(clusterNameColumnID).toString(), point);
+					}
+				}
+				input.close();
+
+				// The optional centroid table is passed on to the final step.
+				if (inputs[1] != null) {
+					centroids = readCentroids((BufferedDataTable) ((PortObjectInput) inputs[1]).getPortObject());
+				}
+			}
+
+			@Override
+			public StreamableOperatorInternals saveInternals() {
+				SimpleStreamableOperatorInternals internals = new SimpleStreamableOperatorInternals();
+				moments.save(internals.getConfig());
+				if (centroids != null) {
+					centroids.save(internals.getConfig());
+				}
+				return internals;
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public StreamableOperatorInternals createInitialStreamableOperatorInternals() {
+		return new SimpleStreamableOperatorInternals();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public MergeOperator createMergeOperator() {
+		return new MergeOperator() {
+
+			@Override
+			public StreamableOperatorInternals mergeFinal(final StreamableOperatorInternals[] operators) {
+
+				ClusterMoments merged = null;
+				Centroids centroids = null;
+				try {
+					for (StreamableOperatorInternals operator : operators) {
+						ClusterMoments moments = ClusterMoments
+								.load(((SimpleStreamableOperatorInternals) operator).getConfig());
+						if (merged == null) {
+							merged = moments;
+							// Every partition reads the same centroid table.
+							centroids = Centroids.load(((SimpleStreamableOperatorInternals) operator).getConfig(),
+									moments.getDimensions());
+						} else {
+							merged.merge(moments);
+						}
+					}
+				} catch (InvalidSettingsException e) {
+					throw new IllegalStateException("The partial cluster statistics could not be read.", e);
+				}
+				SimpleStreamableOperatorInternals internals = new SimpleStreamableOperatorInternals();
+				merged.save(internals.getConfig());
+				if (centroids != null) {
+					centroids.save(internals.getConfig());
+				}
+				return internals;
+			}
+		};
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void finishStreamableExecution(final StreamableOperatorInternals internals, final ExecutionContext exec,
+			final PortOutput[] output) throws Exception {
+
+		ClusterMoments moments = ClusterMoments.load(((SimpleStreamableOperatorInternals) internals).getConfig());
+		Centroids centroids = Centroids.load(((SimpleStreamableOperatorInternals) internals).getConfig(),
+				moments.getDimensions());
+		ClusterPairs pairs = new ClusterPairs(m_numPairs.getIntValue());
+		ThreadPool pool = createThreadPool();
+		double DB;
+		if (isMonitoring()) {
+			DB = computeMonitoredIndex(moments, pairs, pool);
+		} else {
+			m_monitoringState = null;
+			DB = computeRmsIndex(moments, centroids, pairs, pool);
+		}
+
+		RowOutput rowOutput = (RowOutput) output[0];
+		rowOutput.push(new DefaultRow("Row_1", new DoubleCell(DB)));
+		rowOutput.close();
+
+		RowOutput pairsOutput = (RowOutput) output[1];
+		for (DataRow row : pairs.createRows()) {
+			pairsOutput.push(row);
+		}
+		pairsOutput.close();
+	}
+
+	/**
+	 * Decides whether the next row is processed. One random number is drawn per
+	 * row, so a generator with the same seed samples the same rows again.
+	 * 
+	 * @param rand The random generator used for sampling.
+	 * @return True if the row is processed.
+	 */
+	private boolean isSampled(final Random rand) {
+		double randomThreshold = m_randomSampling.getBooleanValue() ? m_sampleRate.getDoubleValue() : 1.0;
+		return randomThreshold >= rand.nextDouble();
+	}
+
+	/**
+	 * Reads the coordinates of the point from the selected columns of the row.
+	 * 
+	 * @param row             The row to read.
+	 * @param includeColumnID The indices of the columns with the coordinates.
+	 * @param point           The array the coordinates are written to.
+	 */
+	static void readPoint(final DataRow row, final int[] includeColumnID, final double[] point) {
+		for (int j = 0; j < includeColumnID.length; j++) {
+			DataCell cell = row.getCell(includeColumnID[j]);
+			if (cell.isMissing()) {
+				throw new MissingValueException((MissingValue) cell);
+			}
+			point[j] = ((DoubleValue) cell).getDoubleValue();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
+
+		if (m_filterColumns.getIncludeList().isEmpty()) {
+			throw new InvalidSettingsException("No numeric columns selected from input.");
+		}
+
+		for (String column : m_sweepColumns.getIncludeList()) {
+			if (!inSpecs[0].containsName(column)) {
+				throw new InvalidSettingsException("The additional cluster column \"" + column + "\" does not exist.");
+			}
+		}
+
+		if (m_replicates.getIntValue() > 0 && !m_sweepColumns.getIncludeList().isEmpty()) {
+			throw new InvalidSettingsException("The bootstrap interval cannot be computed for additional cluster columns.");
+		}
+
+		if (isMonitoring()) {
+			if (!SCATTER_RMS.equals(m_scatter.getStringValue())) {
+				throw new InvalidSettingsException("The monitoring mode needs the root mean square scatter, "
+						+ "the mean distance cannot be updated without the previous batches.");
+			}
+			if (!m_sweepColumns.getIncludeList().isEmpty() || m_replicates.getIntValue() > 0
+					|| (inSpecs.length > 1 && inSpecs[1] != null)) {
+				throw new InvalidSettingsException("The monitoring mode cannot be combined with additional cluster "
+						+ "columns, a bootstrap interval or a centroid table.");
+			}
+		}
+
+		if (inSpecs.length > 1 && inSpecs[1] != null) {
+			if (m_replicates.getIntValue() > 0) {
+				throw new InvalidSettingsException("The bootstrap interval cannot be computed with a centroid table.");
+			}
+			if (!m_sweepColumns.getIncludeList().isEmpty()) {
+				throw new InvalidSettingsException("Additional cluster columns cannot be evaluated with a centroid "
+						+ "table, the centroids belong to the main cluster column.");
+			}
+			Centroids.validate(inSpecs[1],
+					(String[]) m_filterColumns.getIncludeList().stream().toArray(String[]::new));
+		}
+
+		DataColumnSpec[] colSpecs = new DataColumnSpec[m_replicates.getIntValue() > 0 ? 3 : 1];
+		colSpecs[0] = new DataColumnSpecCreator("Davies-Bouldin Index", DoubleCell.TYPE).createSpec();
+		if (m_replicates.getIntValue() > 0) {
+			colSpecs[1] = new DataColumnSpecCreator("Lower bound", DoubleCell.TYPE).createSpec();
+			colSpecs[2] = new DataColumnSpecCreator("Upper bound", DoubleCell.TYPE).createSpec();
+		}
+		DataTableSpec outSpec = new DataTableSpec(colSpecs);
+
+		return new DataTableSpec[] { outSpec, ClusterPairs.createSpec() };
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void saveSettingsTo(final NodeSettingsWO settings) {
+
+		m_clusterColumn.saveSettingsTo(settings);
+		m_filterColumns.saveSettingsTo(settings);
+		m_randomState.saveSettingsTo(settings);
+		m_randomSampling.saveSettingsTo(settings);
+		m_sampleRate.saveSettingsTo(settings);
+		m_scatter.saveSettingsTo(settings);
+		m_threads.saveSettingsTo(settings);
+		m_sweepColumns.saveSettingsTo(settings);
+		m_numPairs.saveSettingsTo(settings);
+		m_replicates.saveSettingsTo(settings);
+		m_confidence.saveSettingsTo(settings);
+		m_monitoring.saveSettingsTo(settings);
+		m_decay.saveSettingsTo(settings);
+		m_window.saveSettingsTo(settings);
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
+
+		m_clusterColumn.loadSettingsFrom(settings);
+		m_filterColumns.loadSettingsFrom(settings);
+		m_randomSampling.loadSettingsFrom(settings);
+		m_randomState.loadSettingsFrom(settings);
+		m_sampleRate.loadSettingsFrom(settings);
+
+		// Workflows saved before the following settings were added lack them, they
+		// keep the single-threaded mean-distance index without bootstrap or
+		// monitoring.
+		m_scatter.setStringValue(SCATTER_MEAN);
+		m_threads.setIntValue(1);
+		m_sweepColumns.setIncludeList(new ArrayList<String>());
+		m_sweepColumns.setExcludeList(new ArrayList<String>());
+		m_numPairs.setIntValue(1);
+		m_replicates.setIntValue(0);
+		m_confidence.setDoubleValue(0.95);
+		m_monitoring.setStringValue(MONITORING_NONE);
+		m_decay.setDoubleValue(0.9);
+		m_window.setIntValue(10);
+		loadOptionalSettings(m_scatter, CFGKEY_SCATTER, settings);
+		loadOptionalSettings(m_threads, CFGKEY_THREADS, settings);
+		loadOptionalSettings(m_sweepColumns, CFGKEY_SWEEP, settings);
+		loadOptionalSettings(m_numPairs, CFGKEY_PAIRS, settings);
+		loadOptionalSettings(m_replicates, CFGKEY_REPLICATES, settings);
+		loadOptionalSettings(m_confidence, CFGKEY_CONFIDENCE, settings);
+		loadOptionalSettings(m_monitoring, CFGKEY_MONITORING, settings);
+		loadOptionalSettings(m_decay, CFGKEY_DECAY, settings);
+		loadOptionalSettings(m_window, CFGKEY_WINDOW, settings);
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
+
+		m_clusterColumn.validateSettings(settings);
+		m_filterColumns.validateSettings(settings);
+		m_randomSampling.validateSettings(settings);
+		m_randomState.validateSettings(settings);
+		m_sampleRate.validateSettings(settings);
+		validateOptionalSettings(m_scatter, CFGKEY_SCATTER, settings);
+		validateOptionalSettings(m_threads, CFGKEY_THREADS, settings);
+		validateOptionalSettings(m_sweepColumns, CFGKEY_SWEEP, settings);
+		validateOptionalSettings(m_numPairs, CFGKEY_PAIRS, settings);
+		validateOptionalSettings(m_replicates, CFGKEY_REPLICATES, settings);
+		validateOptionalSettings(m_confidence, CFGKEY_CONFIDENCE, settings);
+		validateOptionalSettings(m_monitoring, CFGKEY_MONITORING, settings);
+		validateOptionalSettings(m_decay, CFGKEY_DECAY, settings);
+		validateOptionalSettings(m_window, CFGKEY_WINDOW, settings);
+
+	}
+
+	/**
+	 * Loads a setting that may be missing in older workflows, the model keeps its
+	 * value if it is.
+	 *
+	 * @param model    The model of the setting.
+	 * @param key      The key of the setting.
+	 * @param settings The settings to load from.
+	 * @throws InvalidSettingsException If the setting is present but invalid.
+	 */
+	private static void loadOptionalSettings(final SettingsModel model, final String key,
+			final NodeSettingsRO settings) throws InvalidSettingsException {
+
+		if (settings.containsKey(key)) {
+			model.loadSettingsFrom(settings);
+		}
+	}
+
+	/**
+	 * Validates a setting that may be missing in older workflows.
+	 *
+	 * @param model    The model of the setting.
+	 * @param key      The key of the setting.
+	 * @param settings The settings to validate.
+	 * @throws InvalidSettingsException If the setting is present but invalid.
+	 */
+	private static void validateOptionalSettings(final SettingsModel model, final String key,
+			final NodeSettingsRO settings) throws InvalidSettingsException {
+
+		if (settings.containsKey(key)) {
+			model.validateSettings(settings);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void loadInternals(final File internDir, final ExecutionMonitor exec)
+			throws IOException, CanceledExecutionException {
+
+		File file = new File(internDir, MONITORING_FILE);
+		if (file.exists()) {
+			try (InputStream in = new FileInputStream(file)) {
+				m_monitoringState = MonitoringState.load(ModelContent.loadFromXML(in));
+			} catch (InvalidSettingsException e) {
+				throw new IOException("The monitoring state could not be read.", e);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void saveInternals(final File internDir, final ExecutionMonitor exec)
+			throws IOException, CanceledExecutionException {
+
+		if (m_monitoringState != null) {
+			ModelContent content = new ModelContent(MONITORING_FILE);
+			m_monitoringState.save(content);
+			try (OutputStream out = new FileOutputStream(new File(internDir, MONITORING_FILE))) {
+				content.saveToXML(out);
+			}
+		}
+	}
+
+}
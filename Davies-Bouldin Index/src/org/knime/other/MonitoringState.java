@@ -0,0 +1,272 @@
+package org.knime.other;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.ModelContentRO;
+import org.knime.core.node.ModelContentWO;
+
+/**
+ * The cluster moments of a monitored stream of batches, kept between the
+ * executions of the node. With exponential decay, the moments of the previous
+ * batches are down-weighted by a constant factor before a batch is added, so
+ * the state has the size of a single batch. With a sliding window, the moments
+ * of the last batches are kept separately and the oldest is dropped once the
+ * window is full. Either way, only the new batch is read.
+ *
+ * @author Rytis Kumpa
+ */
+final class MonitoringState {
+
+	private static final String CFGKEY_SIGNATURE = "signature";
+	private static final String CFGKEY_DIMENSIONS = "dimensions";
+	private static final String CFGKEY_DECAYED = "decayed";
+	private static final String CFGKEY_NUM_BATCHES = "numBatches";
+	private static final String CFGKEY_NAMES = "clusterNames";
+	private static final String CFGKEY_WEIGHTS = "weights";
+	private static final String CFGKEY_MEANS = "means";
+	private static final String CFGKEY_DEVIATIONS = "deviations";
+	private static final String CFGKEY_WINDOW = "windowSize";
+	private static final String CFGKEY_BATCH = "batch_";
+
+	// A cluster whose decayed weight falls below one point is forgotten.
+	private static final double MIN_WEIGHT = 1.0;
+
+	private final String signature;
+
+	private final int dimensions;
+
+	private final boolean decayed;
+
+	private long numBatches = 0;
+
+	// The decayed moments, cluster c of the labels occupies [c * d, (c + 1) * d)
+	// of the means.
+	private final ClusterLabels labels = new ClusterLabels();
+
+	private double[] weights = new double[0];
+
+	private double[] means = new double[0];
+
+	private double[] deviations = new double[0];
+
+	// The moments of the batches in the window, the oldest first, and their sum.
+	private final Deque<ClusterMoments> window = new ArrayDeque<ClusterMoments>();
+
+	private ClusterMoments windowMoments;
+
+	/**
+	 * @param signature  Identifies the columns and the mode the state was
+	 *                   created for.
+	 * @param dimensions The number of coordinates of each point.
+	 * @param decayed    True for exponential decay, false for a sliding window.
+	 */
+	MonitoringState(final String signature, final int dimensions, final boolean decayed) {
+		this.signature = signature;
+		this.dimensions = dimensions;
+		this.decayed = decayed;
+		this.windowMoments = new ClusterMoments(dimensions);
+	}
+
+	/**
+	 * @param otherSignature The signature of the current settings.
+	 * @return True if the state can be continued with the current settings.
+	 */
+	boolean matches(final String otherSignature) {
+		return signature.equals(otherSignature);
+	}
+
+	/**
+	 * Adds the moments of a batch. The moments of the previous batches are
+	 * decayed, or the oldest batch leaves the window.
+	 *
+	 * @param batch      The moments of the new batch.
+	 * @param factor     The weight of the previous batches relative to the new
+	 *                   one, used with exponential decay.
+	 * @param windowSize The number of batches in the window, used with a sliding
+	 *                   window.
+	 */
+	void add(final ClusterMoments batch, final double factor, final int windowSize) {
+
+		if (decayed) {
+			decay(factor);
+			addDecayed(batch);
+		} else {
+			window.addLast(batch);
+			while (window.size() > windowSize) {
+				window.removeFirst();
+			}
+			mergeWindow();
+		}
+		numBatches++;
+	}
+
+	private void decay(final double factor) {
+
+		for (int c = 0; c < labels.size(); c++) {
+			weights[c] *= factor;
+			deviations[c] *= factor;
+			if (weights[c] < MIN_WEIGHT) {
+				weights[c] = 0.0;
+				deviations[c] = 0.0;
+				Arrays.fill(means, c * dimensions, (c + 1) * dimensions, 0.0);
+			}
+		}
+	}
+
+	/**
+	 * Adds the moments of a batch to the decayed moments, following Chan et al.
+	 * with the decayed weight in place of the count.
+	 */
+	private void addDecayed(final ClusterMoments batch) {
+
+		ClusterLabels batchLabels = batch.getLabels();
+		long[] batchCounts = batch.getCounts();
+		double[] batchMeans = batch.getCentroids();
+		double[] batchDeviations = batch.getDeviations();
+		for (int b = 0; b < batchCounts.length; b++) {
+			if (batchCounts[b] == 0) {
+				continue;
+			}
+			int cluster = labels.intern(batchLabels.getName(b));
+			ensureCapacity(cluster);
+			double weight = weights[cluster];
+			double total = weight + batchCounts[b];
+			int offset = cluster * dimensions;
+			int batchOffset = b * dimensions;
+			double squaredDelta = 0.0;
+			for (int j = 0; j < dimensions; j++) {
+				double delta = batchMeans[batchOffset + j] - means[offset + j];
+				squaredDelta += delta * delta;
+				means[offset + j] += delta * batchCounts[b] / total;
+			}
+			deviations[cluster] += batchDeviations[b] + squaredDelta * weight * batchCounts[b] / total;
+			weights[cluster] = total;
+		}
+	}
+
+	private void mergeWindow() {
+
+		windowMoments = new ClusterMoments(dimensions);
+		for (ClusterMoments batch : window) {
+			windowMoments.merge(batch);
+		}
+	}
+
+	/**
+	 * @return The number of batches added since the state was created.
+	 */
+	long getNumBatches() {
+		return numBatches;
+	}
+
+	/**
+	 * @return The names and IDs of the clusters.
+	 */
+	ClusterLabels getLabels() {
+		return decayed ? labels : windowMoments.getLabels();
+	}
+
+	/**
+	 * @return The centroids of the clusters, cluster c occupies the coordinates
+	 *         [c * d, (c + 1) * d).
+	 */
+	double[] getCentroids() {
+
+		if (!decayed) {
+			return windowMoments.getCentroids();
+		}
+		ensureCapacity(labels.size() - 1);
+		return Arrays.copyOf(means, labels.size() * dimensions);
+	}
+
+	/**
+	 * @return The root mean square distance of the points of each cluster to its
+	 *         centroid, NaN for a forgotten cluster.
+	 */
+	double[] getRmsScatter() {
+
+		if (!decayed) {
+			return windowMoments.getRmsScatter();
+		}
+		ensureCapacity(labels.size() - 1);
+		double[] scatter = new double[labels.size()];
+		for (int c = 0; c < scatter.length; c++) {
+			scatter[c] = Math.sqrt(deviations[c] / weights[c]);
+		}
+		return scatter;
+	}
+
+	/**
+	 * Stores the state, e.g. in the internals of the node.
+	 *
+	 * @param config The content to write to.
+	 */
+	void save(final ModelContentWO config) {
+
+		config.addString(CFGKEY_SIGNATURE, signature);
+		config.addInt(CFGKEY_DIMENSIONS, dimensions);
+		config.addBoolean(CFGKEY_DECAYED, decayed);
+		config.addLong(CFGKEY_NUM_BATCHES, numBatches);
+		if (decayed) {
+			String[] names = new String[labels.size()];
+			for (int c = 0; c < names.length; c++) {
+				names[c] = labels.getName(c);
+			}
+			config.addStringArray(CFGKEY_NAMES, names);
+			config.addDoubleArray(CFGKEY_WEIGHTS, Arrays.copyOf(weights, names.length));
+			config.addDoubleArray(CFGKEY_MEANS, getCentroids());
+			config.addDoubleArray(CFGKEY_DEVIATIONS, Arrays.copyOf(deviations, names.length));
+		} else {
+			config.addInt(CFGKEY_WINDOW, window.size());
+			int b = 0;
+			for (ClusterMoments batch : window) {
+				batch.save(config.addModelContent(CFGKEY_BATCH + b++));
+			}
+		}
+	}
+
+	/**
+	 * Restores a state stored with {@link #save(ModelContentWO)}.
+	 *
+	 * @param config The content to read from.
+	 * @return The state.
+	 * @throws InvalidSettingsException If the content is incomplete.
+	 */
+	static MonitoringState load(final ModelContentRO config) throws InvalidSettingsException {
+
+		MonitoringState state = new MonitoringState(config.getString(CFGKEY_SIGNATURE),
+				config.getInt(CFGKEY_DIMENSIONS), config.getBoolean(CFGKEY_DECAYED));
+		state.numBatches = config.getLong(CFGKEY_NUM_BATCHES);
+		if (state.decayed) {
+			for (String name : config.getStringArray(CFGKEY_NAMES)) {
+				state.ensureCapacity(state.labels.intern(name));
+			}
+			double[] weights = config.getDoubleArray(CFGKEY_WEIGHTS);
+			double[] means = config.getDoubleArray(CFGKEY_MEANS);
+			double[] deviations = config.getDoubleArray(CFGKEY_DEVIATIONS);
+			System.arraycopy(weights, 0, state.weights, 0, weights.length);
+			System.arraycopy(means, 0, state.means, 0, means.length);
+			System.arraycopy(deviations, 0, state.deviations, 0, deviations.length);
+		} else {
+			int windowSize = config.getInt(CFGKEY_WINDOW);
+			for (int b = 0; b < windowSize; b++) {
+				state.window.addLast(ClusterMoments.load(config.getModelContent(CFGKEY_BATCH + b)));
+			}
+			state.mergeWindow();
+		}
+		return state;
+	}
+
+	private void ensureCapacity(final int cluster) {
+
+		if (cluster >= weights.length) {
+			int newSize = Math.max(cluster + 1, weights.length * 2);
+			weights = Arrays.copyOf(weights, newSize);
+			means = Arrays.copyOf(means, newSize * dimensions);
+			deviations = Arrays.copyOf(deviations, newSize);
+		}
+	}
+}
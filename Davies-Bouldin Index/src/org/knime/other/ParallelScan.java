@@ -0,0 +1,311 @@
+package org.knime.other;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Accumulates the points of a table scan on several threads. The table is read
+ * on the calling thread, which passes the points on in chunks: chunk n goes to
+ * worker n mod T, and each worker adds its chunks in order to its own partial
+ * result. The partial results are returned in worker order, so merging them
+ * gives the same sums in every run with the same number of threads. The
+ * workers run on a KNIME thread pool, one task per worker that takes the
+ * chunks from its own queue. A point can also be passed to a given worker,
+ * e.g. to keep all points of a group on the same worker. With one thread the
+ * points are added directly, in the order of the table. Each point
+ * can belong to a cluster of several labellings, e.g. to evaluate several
+ * cluster columns in the same scan.
+ *
+ * @param <A> The type of the partial results.
+ * @author Rytis Kumpa
+ */
+public final class ParallelScan<A> implements AutoCloseable {
+
+	/**
+	 * Adds a chunk of points to a partial result.
+	 *
+	 * @param <A> The type of the partial results.
+	 */
+	public interface ChunkAccumulator<A> {
+
+		/**
+		 * @param partial  The partial result of the worker.
+		 * @param clusters For each labelling the ID of the cluster of each point.
+		 * @param points   The coordinates, point i occupies [i * d, (i + 1) * d).
+		 * @param size     The number of points in the chunk.
+		 */
+		void add(A partial, int[][] clusters, double[] points, int size);
+	}
+
+	/**
+	 * The points of a chunk, passed from the reading thread to a worker.
+	 */
+	private static final class Chunk {
+
+		private final int[][] clusters;
+
+		private final double[] points;
+
+		private final int size;
+
+		private Chunk(final int[][] clusters, final double[] points, final int size) {
+			this.clusters = clusters;
+			this.points = points;
+			this.size = size;
+		}
+	}
+
+	private static final int CHUNK_SIZE = 4096;
+
+	// The number of chunks per worker that may wait to be added, which bounds
+	// the memory if the table is read faster than it is processed.
+	private static final int CHUNKS_IN_FLIGHT = 4;
+
+	// Tells a worker that no further chunks follow.
+	private static final Chunk END = new Chunk(new int[0][], new double[0], 0);
+
+	private final int dimensions;
+
+	private final ChunkAccumulator<A> accumulator;
+
+	private final List<A> partials = new ArrayList<A>();
+
+	private final ThreadPool pool;
+
+	// The chunks of each worker, taken in the order they were read.
+	private final List<BlockingQueue<Chunk>> queues = new ArrayList<BlockingQueue<Chunk>>();
+
+	private final List<Future<Void>> workers = new ArrayList<Future<Void>>();
+
+	private final int numLabellings;
+
+	// The current chunk of each worker.
+	private final int[][][] clusters;
+
+	private final double[][] points;
+
+	private final int[] sizes;
+
+	// The worker the points without a given worker are passed to.
+	private int current = 0;
+
+	/**
+	 * @param pool           The thread pool of the execution, its maximum number
+	 *                       of threads is the number of workers. Null to add the
+	 *                       points on the calling thread.
+	 * @param dimensions     The number of coordinates of each point.
+	 * @param partialFactory Creates an empty partial result for each worker.
+	 * @param accumulator    Adds a chunk to a partial result.
+	 */
+	public ParallelScan(final ThreadPool pool, final int dimensions, final Supplier<A> partialFactory,
+			final ChunkAccumulator<A> accumulator) {
+		this(pool, dimensions, 1, partialFactory, accumulator);
+	}
+
+	/**
+	 * @param pool           The thread pool of the execution, its maximum number
+	 *                       of threads is the number of workers. Null to add the
+	 *                       points on the calling thread.
+	 * @param dimensions     The number of coordinates of each point.
+	 * @param numLabellings  The number of clusters each point belongs to.
+	 * @param partialFactory Creates an empty partial result for each worker.
+	 * @param accumulator    Adds a chunk to a partial result.
+	 */
+	public ParallelScan(final ThreadPool pool, final int dimensions, final int numLabellings,
+			final Supplier<A> partialFactory, final ChunkAccumulator<A> accumulator) {
+
+		this.dimensions = dimensions;
+		this.numLabellings = numLabellings;
+		this.accumulator = accumulator;
+		this.pool = pool;
+		int numThreads = getNumThreads(pool);
+		clusters = new int[numThreads][numLabellings][CHUNK_SIZE];
+		points = new double[numThreads][CHUNK_SIZE * dimensions];
+		sizes = new int[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			partials.add(partialFactory.get());
+		}
+		if (numThreads > 1) {
+			for (int t = 0; t < numThreads; t++) {
+				BlockingQueue<Chunk> queue = new ArrayBlockingQueue<Chunk>(CHUNKS_IN_FLIGHT);
+				A partial = partials.get(t);
+				queues.add(queue);
+				workers.add(pool.enqueue(() -> {
+					for (Chunk chunk = queue.take(); chunk != END; chunk = queue.take()) {
+						accumulator.add(partial, chunk.clusters, chunk.points, chunk.size);
+					}
+					return null;
+				}));
+			}
+		}
+	}
+
+	/**
+	 * @param pool The thread pool of the execution, or null.
+	 * @return The number of workers a scan with the pool has.
+	 */
+	public static int getNumThreads(final ThreadPool pool) {
+		return pool == null ? 1 : Math.max(1, pool.getMaxThreads());
+	}
+
+	/**
+	 * Adds a point, it is copied to the current chunk.
+	 *
+	 * @param cluster The ID of the cluster of the point.
+	 * @param point   The coordinates of the point.
+	 * @throws Exception If a worker has failed or the thread is interrupted.
+	 */
+	public void add(final int cluster, final double[] point) throws Exception {
+
+		clusters[current][0][sizes[current]] = cluster;
+		if (append(current, point)) {
+			current = (current + 1) % sizes.length;
+		}
+	}
+
+	/**
+	 * Adds a point that belongs to a cluster of each labelling.
+	 *
+	 * @param cluster For each labelling the ID of the cluster of the point.
+	 * @param point   The coordinates of the point.
+	 * @throws Exception If a worker has failed or the thread is interrupted.
+	 */
+	public void add(final int[] cluster, final double[] point) throws Exception {
+
+		if (add(cluster, point, current)) {
+			current = (current + 1) % sizes.length;
+		}
+	}
+
+	/**
+	 * Adds a point to the chunks of a given worker, which adds them in order.
+	 *
+	 * @param cluster For each labelling the ID of the cluster of the point.
+	 * @param point   The coordinates of the point.
+	 * @param worker  The worker, less than {@link #getNumThreads(ThreadPool)}.
+	 * @return True if the chunk of the worker was full and has been passed on.
+	 * @throws Exception If a worker has failed or the thread is interrupted.
+	 */
+	public boolean add(final int[] cluster, final double[] point, final int worker) throws Exception {
+
+		for (int l = 0; l < numLabellings; l++) {
+			clusters[worker][l][sizes[worker]] = cluster[l];
+		}
+		return append(worker, point);
+	}
+
+	/**
+	 * Copies the coordinates to the chunk of the worker and passes the chunk on
+	 * once it is full.
+	 */
+	private boolean append(final int worker, final double[] point) throws Exception {
+
+		System.arraycopy(point, 0, points[worker], sizes[worker] * dimensions, dimensions);
+		if (++sizes[worker] == CHUNK_SIZE) {
+			dispatch(worker);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the last chunk and waits until all workers are done.
+	 *
+	 * @return The partial results in worker order.
+	 * @throws Exception If a worker has failed or the thread is interrupted.
+	 */
+	public List<A> finish() throws Exception {
+
+		for (int t = 0; t < sizes.length; t++) {
+			if (sizes[t] > 0) {
+				dispatch(t);
+			}
+		}
+		if (!workers.isEmpty()) {
+			for (int t = 0; t < workers.size(); t++) {
+				put(t, END);
+			}
+			invisible(() -> {
+				for (Future<Void> worker : workers) {
+					worker.get();
+				}
+				return null;
+			});
+		}
+		return partials;
+	}
+
+	/**
+	 * Stops the workers, e.g. if the execution is canceled.
+	 */
+	@Override
+	public void close() {
+		for (Future<Void> worker : workers) {
+			worker.cancel(true);
+		}
+	}
+
+	private void dispatch(final int worker) throws Exception {
+
+		if (workers.isEmpty()) {
+			accumulator.add(partials.get(0), clusters[0], points[0], sizes[0]);
+			sizes[0] = 0;
+			return;
+		}
+
+		put(worker, new Chunk(clusters[worker], points[worker], sizes[worker]));
+		clusters[worker] = new int[numLabellings][CHUNK_SIZE];
+		points[worker] = new double[CHUNK_SIZE * dimensions];
+		sizes[worker] = 0;
+	}
+
+	/**
+	 * Passes a chunk to a worker, waiting while its queue is full.
+	 */
+	private void put(final int worker, final Chunk chunk) throws Exception {
+
+		BlockingQueue<Chunk> queue = queues.get(worker);
+		Future<Void> future = workers.get(worker);
+		if (queue.offer(chunk)) {
+			return;
+		}
+		invisible(() -> {
+			while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+				// A failed worker takes no further chunks.
+				if (future.isDone()) {
+					future.get();
+				}
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * Waits for the workers without occupying a thread of the pool, so the
+	 * workers can start even if the pool is otherwise busy.
+	 */
+	private void invisible(final Callable<Void> wait) throws Exception {
+
+		try {
+			pool.runInvisible(wait);
+		} catch (ExecutionException e) {
+			Throwable cause = e;
+			while (cause instanceof ExecutionException && cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package org.knime.SilhouetteCoeffiecient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Maps the String names of the clusters to dense integer IDs, so that the
+ * per-cluster values can be stored in primitive arrays.
+ *
+ * @author Rytis Kumpa
+ */
+final class ClusterLabels {
+
+	private final HashMap<String, Integer> clusterIDs = new HashMap<String, Integer>();
+
+	private final ArrayList<String> clusterNames = new ArrayList<String>();
+
+	/**
+	 * Returns the ID of the cluster, a new ID is assigned if the cluster has not
+	 * been seen before.
+	 *
+	 * @param clusterName The name of the cluster.
+	 * @return The ID of the cluster, ranging from 0 to the number of clusters.
+	 */
+	int intern(final String clusterName) {
+		Integer id = clusterIDs.get(clusterName);
+		if (id == null) {
+			id = clusterNames.size();
+			clusterIDs.put(clusterName, id);
+			clusterNames.add(clusterName);
+		}
+		return id;
+	}
+
+	/**
+	 * @param clusterName The name of the cluster.
+	 * @return The ID of the cluster or -1 if the cluster is unknown.
+	 */
+	int getID(final String clusterName) {
+		Integer id = clusterIDs.get(clusterName);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * @param id The ID of the cluster.
+	 * @return The name of the cluster.
+	 */
+	String getName(final int id) {
+		return clusterNames.get(id);
+	}
+
+	/**
+	 * @return The number of distinct clusters.
+	 */
+	int size() {
+		return clusterNames.size();
+	}
+}
@@ -0,0 +1,178 @@
+package org.knime.SilhouetteCoeffiecient;
+
+import java.util.Arrays;
+
+/**
+ * Sufficient statistics of each cluster: its size, its centroid and its
+ * scatter, i.e. the sum of squared Euclidean distances of its points to the
+ * centroid. The statistics are accumulated point by point with Welford's
+ * update, so a single streaming pass over the data is enough. The statistics
+ * also give the simplified silhouette, which compares the distances of a point
+ * to the centroids, e.g. for the Cluster Validity node.
+ *
+ * @author Rytis Kumpa
+ */
+public final class ClusterStatistics {
+
+	private final int dimensions;
+
+	private long[] counts = new long[0];
+
+	private double[][] centroids = new double[0][];
+
+	private double[] scatter = new double[0];
+
+	/**
+	 * @param dimensions The number of coordinates of each point.
+	 */
+	ClusterStatistics(final int dimensions) {
+		this.dimensions = dimensions;
+	}
+
+	/**
+	 * Creates the statistics from values collected elsewhere, e.g. merged from
+	 * the chunks of a parallel scan.
+	 *
+	 * @param counts     The number of points of each cluster.
+	 * @param centroids  The centroids, cluster c occupies [c * d, (c + 1) * d).
+	 * @param scatter    The sum of squared distances of the points of each
+	 *                   cluster to its centroid.
+	 * @param dimensions The number of coordinates of each point.
+	 */
+	public ClusterStatistics(final long[] counts, final double[] centroids, final double[] scatter,
+			final int dimensions) {
+		this.dimensions = dimensions;
+		this.counts = Arrays.copyOf(counts, counts.length);
+		this.scatter = Arrays.copyOf(scatter, counts.length);
+		this.centroids = new double[counts.length][];
+		for (int c = 0; c < counts.length; c++) {
+			this.centroids[c] = Arrays.copyOfRange(centroids, c * dimensions, (c + 1) * dimensions);
+		}
+	}
+
+	/**
+	 * Adds a point to the statistics of the cluster.
+	 *
+	 * @param cluster The ID of the cluster the point belongs to.
+	 * @param point   The coordinates of the point.
+	 */
+	void add(final int cluster, final double[] point) {
+
+		if (cluster >= counts.length) {
+			int newSize = Math.max(cluster + 1, counts.length * 2);
+			int oldSize = counts.length;
+			counts = Arrays.copyOf(counts, newSize);
+			scatter = Arrays.copyOf(scatter, newSize);
+			centroids = Arrays.copyOf(centroids, newSize);
+			for (int i = oldSize; i < newSize; i++) {
+				centroids[i] = new double[dimensions];
+			}
+		}
+
+		long count = ++counts[cluster];
+		double[] centroid = centroids[cluster];
+		double deviation = 0.0;
+		for (int j = 0; j < dimensions; j++) {
+			double delta = point[j] - centroid[j];
+			centroid[j] += delta / count;
+			deviation += delta * (point[j] - centroid[j]);
+		}
+		scatter[cluster] += deviation;
+	}
+
+	/**
+	 * @param cluster The ID of the cluster.
+	 * @return The number of points in the cluster.
+	 */
+	public long getCount(final int cluster) {
+		return cluster < counts.length ? counts[cluster] : 0;
+	}
+
+	/**
+	 * @param cluster The ID of the cluster.
+	 * @return The centroid of the cluster.
+	 */
+	double[] getCentroid(final int cluster) {
+		return centroids[cluster];
+	}
+
+	/**
+	 * @param cluster The ID of the cluster.
+	 * @return The sum of squared distances of the cluster points to the
+	 *         centroid.
+	 */
+	double getScatter(final int cluster) {
+		return scatter[cluster];
+	}
+
+	/**
+	 * Computes the squared Euclidean distance from the point to the centroid of
+	 * the cluster.
+	 *
+	 * @param point   The coordinates of the point.
+	 * @param cluster The ID of the cluster.
+	 * @return The squared distance to the centroid.
+	 */
+	double squaredDistanceToCentroid(final double[] point, final int cluster) {
+		return squaredDistanceToCentroid(point, 0, cluster);
+	}
+
+	/**
+	 * Computes the squared Euclidean distance from a point of a chunk to the
+	 * centroid of the cluster.
+	 *
+	 * @param points      The coordinates of the chunk.
+	 * @param pointOffset The index of the first coordinate of the point.
+	 * @param cluster     The ID of the cluster.
+	 * @return The squared distance to the centroid.
+	 */
+	public double squaredDistanceToCentroid(final double[] points, final int pointOffset, final int cluster) {
+
+		double[] centroid = centroids[cluster];
+		double distance = 0.0;
+		for (int j = 0; j < dimensions; j++) {
+			double temp = points[pointOffset + j] - centroid[j];
+			distance += temp * temp;
+		}
+		return distance;
+	}
+
+	/**
+	 * Computes the simplified silhouette of a point of a chunk, which uses the
+	 * distance to the own centroid and to the closest other centroid in place of
+	 * the mean distances to the points of the clusters.
+	 *
+	 * @param points      The coordinates of the chunk.
+	 * @param pointOffset The index of the first coordinate of the point.
+	 * @param cluster     The ID of the cluster of the point.
+	 * @return The simplified silhouette, 0 for a point of a singleton cluster.
+	 */
+	public double simplifiedSilhouette(final double[] points, final int pointOffset, final int cluster) {
+
+		if (counts[cluster] <= 1) {
+			return 0.0;
+		}
+		double closest = Double.POSITIVE_INFINITY;
+		for (int c = 0; c < counts.length; c++) {
+			if (c != cluster && counts[c] > 0) {
+				closest = Math.min(closest, squaredDistanceToCentroid(points, pointOffset, c));
+			}
+		}
+		return SilhouetteCoefficientNodeModel.silhouette(
+				Math.sqrt(squaredDistanceToCentroid(points, pointOffset, cluster)), Math.sqrt(closest));
+	}
+
+	/**
+	 * Computes the sum of squared Euclidean distances from the point to every
+	 * point of the cluster. It follows from the decomposition
+	 * sum ||x - y||^2 = |C| * ||x - c||^2 + sum ||y - c||^2, so no pairwise
+	 * distances are needed.
+	 *
+	 * @param point   The coordinates of the point.
+	 * @param cluster The ID of the cluster.
+	 * @return The sum of squared distances to all points of the cluster.
+	 */
+	double sumOfSquaredDistances(final double[] point, final int cluster) {
+		return counts[cluster] * squaredDistanceToCentroid(point, cluster) + scatter[cluster];
+	}
+}
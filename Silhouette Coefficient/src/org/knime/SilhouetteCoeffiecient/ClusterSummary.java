@@ -0,0 +1,174 @@
+package org.knime.SilhouetteCoeffiecient;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.node.BufferedDataContainer;
+
+/**
+ * Summarizes the Silhouette Coefficients of the evaluated points per cluster:
+ * the mean, minimum and maximum coefficient, the fraction of points with a
+ * negative coefficient and the cluster that is most often the closest other
+ * cluster of its points. The values are collected while the coefficients are
+ * computed, so no further pass over the data is needed.
+ *
+ * @author Rytis Kumpa
+ */
+final class ClusterSummary {
+
+	private ClusterLabels labels = new ClusterLabels();
+
+	private long[] sizes = new long[0];
+
+	private long[] evaluated = new long[0];
+
+	private long[] negatives = new long[0];
+
+	private double[] sums = new double[0];
+
+	private double[] minimums = new double[0];
+
+	private double[] maximums = new double[0];
+
+	// For each cluster, the number of times each other cluster was the closest.
+	private HashMap<Integer, long[]>[] neighbours = newNeighbours(0);
+
+	/**
+	 * Adds the coefficient of an evaluated point.
+	 *
+	 * @param cluster        The ID of the cluster of the point.
+	 * @param value          The coefficient of the point.
+	 * @param closestCluster The ID of the closest other cluster, or -1 if there
+	 *                       is none.
+	 */
+	void add(final int cluster, final double value, final int closestCluster) {
+
+		ensureCapacity(cluster);
+		evaluated[cluster]++;
+		sums[cluster] += value;
+		minimums[cluster] = Math.min(minimums[cluster], value);
+		maximums[cluster] = Math.max(maximums[cluster], value);
+		if (value < 0.0) {
+			negatives[cluster]++;
+		}
+		if (closestCluster >= 0) {
+			if (neighbours[cluster] == null) {
+				neighbours[cluster] = new HashMap<Integer, long[]>();
+			}
+			neighbours[cluster].computeIfAbsent(closestCluster, x -> new long[1])[0]++;
+		}
+	}
+
+	/**
+	 * Sets the number of points of a cluster, including the points that have not
+	 * been evaluated.
+	 *
+	 * @param cluster The ID of the cluster.
+	 * @param size    The number of points in the cluster.
+	 */
+	void setSize(final int cluster, final long size) {
+		ensureCapacity(cluster);
+		sizes[cluster] = size;
+	}
+
+	/**
+	 * @param labels The names of the clusters the IDs refer to.
+	 */
+	void setLabels(final ClusterLabels labels) {
+		this.labels = labels;
+	}
+
+	/**
+	 * @return The spec of the table with one row per cluster.
+	 */
+	static DataTableSpec createSpec() {
+
+		DataTableSpecCreator specCreator = new DataTableSpecCreator();
+		specCreator.addColumns(new DataColumnSpecCreator("Size", LongCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Points evaluated", LongCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Mean", DoubleCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Minimum", DoubleCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Maximum", DoubleCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Negative fraction", DoubleCell.TYPE).createSpec());
+		specCreator.addColumns(new DataColumnSpecCreator("Closest cluster", StringCell.TYPE).createSpec());
+		return specCreator.createSpec();
+	}
+
+	/**
+	 * Adds one row per cluster to the container, the row key is the name of the
+	 * cluster.
+	 *
+	 * @param container The container with the spec created by
+	 *                  {@link #createSpec()}.
+	 */
+	void writeTo(final BufferedDataContainer container) {
+
+		for (int cluster = 0; cluster < labels.size(); cluster++) {
+			ensureCapacity(cluster);
+			long count = evaluated[cluster];
+			DataCell missing = DataType.getMissingCell();
+			container.addRowToTable(new DefaultRow(new RowKey(labels.getName(cluster)),
+					new LongCell(sizes[cluster]), new LongCell(count),
+					count > 0 ? new DoubleCell(sums[cluster] / count) : missing,
+					count > 0 ? new DoubleCell(minimums[cluster]) : missing,
+					count > 0 ? new DoubleCell(maximums[cluster]) : missing,
+					count > 0 ? new DoubleCell((double) negatives[cluster] / count) : missing,
+					closestCluster(cluster)));
+		}
+	}
+
+	/**
+	 * @param cluster The ID of the cluster.
+	 * @return The name of the cluster that was most often the closest other
+	 *         cluster, ties are broken by the lower cluster ID.
+	 */
+	private DataCell closestCluster(final int cluster) {
+
+		if (neighbours[cluster] == null) {
+			return DataType.getMissingCell();
+		}
+		int closest = -1;
+		long closestCount = 0;
+		for (Map.Entry<Integer, long[]> entry : neighbours[cluster].entrySet()) {
+			long count = entry.getValue()[0];
+			if (count > closestCount || (count == closestCount && entry.getKey() < closest)) {
+				closest = entry.getKey();
+				closestCount = count;
+			}
+		}
+		return new StringCell(labels.getName(closest));
+	}
+
+	private void ensureCapacity(final int cluster) {
+
+		if (cluster >= sizes.length) {
+			int oldSize = sizes.length;
+			int newSize = Math.max(cluster + 1, oldSize * 2);
+			sizes = Arrays.copyOf(sizes, newSize);
+			evaluated = Arrays.copyOf(evaluated, newSize);
+			negatives = Arrays.copyOf(negatives, newSize);
+			sums = Arrays.copyOf(sums, newSize);
+			minimums = Arrays.copyOf(minimums, newSize);
+			maximums = Arrays.copyOf(maximums, newSize);
+			Arrays.fill(minimums, oldSize, newSize, Double.POSITIVE_INFINITY);
+			Arrays.fill(maximums, oldSize, newSize, Double.NEGATIVE_INFINITY);
+			neighbours = Arrays.copyOf(neighbours, newSize);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static HashMap<Integer, long[]>[] newNeighbours(final int size) {
+		return new HashMap[size];
+	}
+}
@@ -0,0 +1,141 @@
+package org.knime.SilhouetteCoeffiecient;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import org.knime.core.util.FileUtil;
+
+/**
+ * An array of doubles with a long index. It is held on the heap if it is small
+ * enough, otherwise it is backed by a memory-mapped temporary file, so only
+ * the pages that are currently used occupy memory. The file is mapped in
+ * segments, since a single mapping cannot exceed 2 GB.
+ *
+ * @author Rytis Kumpa
+ */
+final class LargeDoubleArray implements AutoCloseable {
+
+	// Each segment holds 2^27 doubles, i.e. 1 GB.
+	private static final int SEGMENT_SHIFT = 27;
+
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+	private final long size;
+
+	private final double[] heap;
+
+	private final MappedByteBuffer[] segments;
+
+	private final File file;
+
+	private LargeDoubleArray(final long size, final double[] heap, final MappedByteBuffer[] segments,
+			final File file) {
+		this.size = size;
+		this.heap = heap;
+		this.segments = segments;
+		this.file = file;
+	}
+
+	/**
+	 * Creates an array filled with zeros.
+	 *
+	 * @param size   The number of elements.
+	 * @param onHeap True if the array should be held on the heap, it is
+	 *               memory-mapped anyway if it is too large for a Java array.
+	 * @return The array.
+	 * @throws IOException If the temporary file cannot be created.
+	 */
+	static LargeDoubleArray create(final long size, final boolean onHeap) throws IOException {
+
+		if (onHeap && size <= Integer.MAX_VALUE - 8) {
+			return new LargeDoubleArray(size, new double[(int) size], null, null);
+		}
+
+		File file = FileUtil.createTempFile("silhouette", ".bin");
+		int numSegments = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+		MappedByteBuffer[] segments = new MappedByteBuffer[numSegments];
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(size * Double.BYTES);
+			FileChannel channel = raf.getChannel();
+			for (int s = 0; s < numSegments; s++) {
+				long start = (long) s << SEGMENT_SHIFT;
+				long length = Math.min(size - start, 1L << SEGMENT_SHIFT) * Double.BYTES;
+				segments[s] = channel.map(FileChannel.MapMode.READ_WRITE, start * Double.BYTES, length);
+			}
+		}
+		// The mappings stay valid after the channel is closed.
+		return new LargeDoubleArray(size, null, segments, file);
+	}
+
+	/**
+	 * @return The number of elements.
+	 */
+	long size() {
+		return size;
+	}
+
+	/**
+	 * @param index The index of the element.
+	 * @return The value of the element.
+	 */
+	double get(final long index) {
+		if (heap != null) {
+			return heap[(int) index];
+		}
+		return segments[(int) (index >>> SEGMENT_SHIFT)].getDouble((int) (index & SEGMENT_MASK) * Double.BYTES);
+	}
+
+	/**
+	 * @param index The index of the element.
+	 * @param value The new value of the element.
+	 */
+	void set(final long index, final double value) {
+		if (heap != null) {
+			heap[(int) index] = value;
+		} else {
+			segments[(int) (index >>> SEGMENT_SHIFT)].putDouble((int) (index & SEGMENT_MASK) * Double.BYTES, value);
+		}
+	}
+
+	/**
+	 * @param value The new value of every element.
+	 */
+	void fill(final double value) {
+		if (heap != null) {
+			Arrays.fill(heap, value);
+		} else {
+			for (long index = 0; index < size; index++) {
+				set(index, value);
+			}
+		}
+	}
+
+	/**
+	 * @param index The index of the element.
+	 * @param value The value added to the element.
+	 */
+	void add(final long index, final double value) {
+		set(index, get(index) + value);
+	}
+
+	/**
+	 * Releases the array and deletes the temporary file.
+	 */
+	@Override
+	public void close() {
+		if (file != null) {
+			for (int s = 0; s < segments.length; s++) {
+				segments[s] = null;
+			}
+			// The file can only be deleted once the mappings are garbage
+			// collected on some platforms, so it is deleted on exit otherwise.
+			if (!file.delete()) {
+				file.deleteOnExit();
+			}
+		}
+	}
+}
@@ -0,0 +1,291 @@
+package org.knime.SilhouetteCoeffiecient;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnDomain;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.MissingValue;
+import org.knime.core.data.MissingValueException;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.distmatrix.type.DistanceVectorDataValue;
+
+/**
+ * The coordinates and cluster IDs of all points of a table, held in primitive
+ * arrays in the order of the table rows. If the table contains a precomputed
+ * distance matrix, the distances are looked up in the matrix instead of being
+ * computed from the coordinates. Since all points are held in memory, a table
+ * is only read if its points, and the distance sums of the incremental mode,
+ * take at most half of the maximum heap.
+ *
+ * @author Rytis Kumpa
+ */
+final class PointData {
+
+	// The heap taken by a row besides its coordinates: the header of its
+	// coordinate array, the reference to it and its cluster ID.
+	private static final long ROW_OVERHEAD_BYTES = 28;
+
+	private final double[][] points;
+
+	private final int[] clusters;
+
+	private final ClusterLabels labels;
+
+	// The rows of the distance matrix, or null if the Euclidean distance is used.
+	private final DistanceVectorDataValue[] distanceVectors;
+
+	private int[][] members = null;
+
+	private PointData(final double[][] points, final int[] clusters, final ClusterLabels labels,
+			final DistanceVectorDataValue[] distanceVectors) {
+		this.points = points;
+		this.clusters = clusters;
+		this.labels = labels;
+		this.distanceVectors = distanceVectors;
+	}
+
+	/**
+	 * Reads the points and their cluster allocation from the table.
+	 *
+	 * @param table               The input table.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param distanceColumnID    The index of the column with the distance
+	 *                            matrix, or -1 to use the Euclidean distance.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param distanceSums        True if the caller keeps the sum of the
+	 *                            distances of each point to each cluster, which
+	 *                            is counted in the memory check.
+	 * @param exec                The execution monitor.
+	 * @return The points of the table.
+	 * @throws CanceledExecutionException
+	 * @throws IllegalStateException      If the points do not fit into the
+	 *                                    memory.
+	 */
+	static PointData read(final BufferedDataTable table, final int clusterNameColumnID, final int distanceColumnID,
+			final int[] includeColumnID, final boolean distanceSums, final ExecutionMonitor exec)
+			throws CanceledExecutionException {
+		return read(table, new int[] { clusterNameColumnID }, distanceColumnID, includeColumnID, distanceSums,
+				exec)[0];
+	}
+
+	/**
+	 * Reads the points and several cluster allocations of them from the table in
+	 * one pass. The returned instances share the coordinates, so the points are
+	 * held in memory only once.
+	 *
+	 * @param table                The input table.
+	 * @param clusterNameColumnIDs The indices of the columns with the cluster
+	 *                             names.
+	 * @param distanceColumnID     The index of the column with the distance
+	 *                             matrix, or -1 to use the Euclidean distance.
+	 * @param includeColumnID      The indices of the columns with the
+	 *                             coordinates.
+	 * @param exec                 The execution monitor.
+	 * @return The points of the table, one instance per cluster column.
+	 * @throws CanceledExecutionException
+	 * @throws IllegalStateException      If the points do not fit into the
+	 *                                    memory.
+	 */
+	static PointData[] read(final BufferedDataTable table, final int[] clusterNameColumnIDs,
+			final int distanceColumnID, final int[] includeColumnID, final ExecutionMonitor exec)
+			throws CanceledExecutionException {
+		return read(table, clusterNameColumnIDs, distanceColumnID, includeColumnID, false, exec);
+	}
+
+	private static PointData[] read(final BufferedDataTable table, final int[] clusterNameColumnIDs,
+			final int distanceColumnID, final int[] includeColumnID, final boolean distanceSums,
+			final ExecutionMonitor exec) throws CanceledExecutionException {
+
+		if (table.size() > Integer.MAX_VALUE) {
+			throw new IllegalStateException(
+					"Tables with more than " + Integer.MAX_VALUE + " rows are not supported in this mode.");
+		}
+
+		// The number of clusters is only known in advance if the domain lists the
+		// cluster names, otherwise the sums are checked again after reading.
+		int knownClusters = 0;
+		if (distanceSums) {
+			DataColumnDomain domain = table.getDataTableSpec().getColumnSpec(clusterNameColumnIDs[0]).getDomain();
+			knownClusters = domain.hasValues() ? domain.getValues().size() : 0;
+		}
+		checkMemory(estimateBytes(table.size(), includeColumnID.length, clusterNameColumnIDs.length,
+				distanceColumnID >= 0, knownClusters));
+
+		int size = (int) table.size();
+		// The coordinates are not needed if the distances are looked up.
+		double[][] points = new double[size][distanceColumnID < 0 ? includeColumnID.length : 0];
+		DistanceVectorDataValue[] distanceVectors = distanceColumnID < 0 ? null
+				: new DistanceVectorDataValue[size];
+		int[][] clusters = new int[clusterNameColumnIDs.length][size];
+		ClusterLabels[] labels = new ClusterLabels[clusterNameColumnIDs.length];
+		for (int l = 0; l < labels.length; l++) {
+			labels[l] = new ClusterLabels();
+		}
+
+		int i = 0;
+		for (DataRow row : table) {
+			exec.checkCanceled();
+			exec.setProgress((double) i / size, "Reading row: " + i);
+			if (distanceVectors == null) {
+				SilhouetteCoefficientNodeModel.readPoint(row, includeColumnID, points[i]);
+			} else {
+				DataCell cell = row.getCell(distanceColumnID);
+				if (cell.isMissing()) {
+					throw new MissingValueException((MissingValue) cell);
+				}
+				distanceVectors[i] = (DistanceVectorDataValue) cell;
+			}
+			for (int l = 0; l < labels.length; l++) {
+				clusters[l][i] = labels[l].intern(row.getCell(clusterNameColumnIDs[l]).toString());
+			}
+			i++;
+		}
+
+		if (distanceSums) {
+			checkMemory(estimateBytes(size, includeColumnID.length, clusterNameColumnIDs.length,
+					distanceColumnID >= 0, labels[0].size()));
+		}
+
+		PointData[] data = new PointData[labels.length];
+		for (int l = 0; l < labels.length; l++) {
+			data[l] = new PointData(points, clusters[l], labels[l], distanceVectors);
+		}
+		return data;
+	}
+
+	/**
+	 * @param requiredBytes The estimated heap taken in the mode.
+	 * @throws IllegalStateException If it exceeds half of the maximum heap.
+	 */
+	private static void checkMemory(final long requiredBytes) {
+
+		long availableBytes = Runtime.getRuntime().maxMemory() / 2;
+		if (requiredBytes > availableBytes) {
+			throw new IllegalStateException("The points of the table need about " + (requiredBytes >> 20)
+					+ " MB of memory, but only " + (availableBytes >> 20) + " MB are available in this mode."
+					+ " Use the out-of-core or the cluster statistics mode, or sample the table beforehand.");
+		}
+	}
+
+	/**
+	 * Estimates the heap taken by the points of a table.
+	 *
+	 * @param size           The number of rows.
+	 * @param dimensions     The number of coordinates of each point.
+	 * @param numLabellings  The number of cluster columns.
+	 * @param distanceMatrix True if the distances are looked up in a distance
+	 *                       matrix, whose lower triangle is then held instead of
+	 *                       the coordinates.
+	 * @param numClusters    The number of clusters whose distance sums are kept
+	 *                       per point, as by the incremental mode, 0 if none are
+	 *                       kept.
+	 * @return The number of bytes.
+	 */
+	static long estimateBytes(final long size, final int dimensions, final int numLabellings,
+			final boolean distanceMatrix, final int numClusters) {
+
+		long rowBytes = ROW_OVERHEAD_BYTES + 4L * (numLabellings - 1);
+		if (numClusters > 0) {
+			// A row of the n x k matrix of distance sums with its array header.
+			rowBytes += 16 + (long) numClusters * Double.BYTES;
+		}
+		if (distanceMatrix) {
+			return size * rowBytes + size * (size - 1) / 2 * Double.BYTES;
+		}
+		return size * (rowBytes + (long) dimensions * Double.BYTES);
+	}
+
+	/**
+	 * @return The number of points.
+	 */
+	int size() {
+		return points.length;
+	}
+
+	/**
+	 * @param i The index of the point.
+	 * @return The coordinates of the point.
+	 */
+	double[] getPoint(final int i) {
+		return points[i];
+	}
+
+	/**
+	 * @param i The index of the point.
+	 * @return The ID of the cluster the point belongs to.
+	 */
+	int getCluster(final int i) {
+		return clusters[i];
+	}
+
+	/**
+	 * @return The names and IDs of the clusters.
+	 */
+	ClusterLabels getLabels() {
+		return labels;
+	}
+
+	/**
+	 * @return The indices of the points of each cluster, indexed by the cluster
+	 *         ID.
+	 */
+	int[][] getMembers() {
+
+		if (members == null) {
+			int[] sizes = new int[labels.size()];
+			for (int cluster : clusters) {
+				sizes[cluster]++;
+			}
+			members = new int[labels.size()][];
+			for (int c = 0; c < members.length; c++) {
+				members[c] = new int[sizes[c]];
+				sizes[c] = 0;
+			}
+			for (int i = 0; i < clusters.length; i++) {
+				members[clusters[i]][sizes[clusters[i]]++] = i;
+			}
+		}
+		return members;
+	}
+
+	/**
+	 * @param cluster The ID of the cluster.
+	 * @return The number of points in the cluster.
+	 */
+	int getClusterSize(final int cluster) {
+		return getMembers()[cluster].length;
+	}
+
+	/**
+	 * Computes the distance between two points, either looked up in the distance
+	 * matrix or as the Euclidean distance of their coordinates.
+	 *
+	 * @param i The index of the first point.
+	 * @param j The index of the second point.
+	 * @return The distance between the points.
+	 */
+	double distance(final int i, final int j) {
+		if (distanceVectors != null) {
+			return distanceVectors[i].getDistance(distanceVectors[j]);
+		}
+		return euclideanDistance(points[i], points[j]);
+	}
+
+	/**
+	 * Computes the Euclidean distance between two coordinate arrays.
+	 *
+	 * @param p1 The coordinates of the first point.
+	 * @param p2 The coordinates of the second point.
+	 * @return The distance between the points.
+	 */
+	static double euclideanDistance(final double[] p1, final double[] p2) {
+
+		double distance = 0.0;
+		for (int j = 0; j < p1.length; j++) {
+			double temp = p2[j] - p1[j];
+			distance += temp * temp;
+		}
+		return Math.sqrt(distance);
+	}
+}
@@ -0,0 +1,143 @@
+package org.knime.SilhouetteCoeffiecient;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * The state of the last incremental computation: for each point the sum of
+ * its distances to the points of each cluster, together with the cluster
+ * allocation the sums belong to. A checksum of the row keys and coordinates
+ * ensures that the sums are only reused for the same points.
+ *
+ * @author Rytis Kumpa
+ */
+final class SilhouetteCache {
+
+	private static final String FILE_NAME = "silhouette_sums.bin";
+
+	private final long checksum;
+
+	private final int[] clusters;
+
+	private final String[] clusterNames;
+
+	private final double[][] sums;
+
+	/**
+	 * @param checksum     The checksum of the row keys and coordinates.
+	 * @param clusters     The ID of the cluster of each point.
+	 * @param clusterNames The names of the clusters, indexed by the ID.
+	 * @param sums         For each point the sum of its distances to the points
+	 *                     of each cluster.
+	 */
+	SilhouetteCache(final long checksum, final int[] clusters, final String[] clusterNames, final double[][] sums) {
+		this.checksum = checksum;
+		this.clusters = clusters;
+		this.clusterNames = clusterNames;
+		this.sums = sums;
+	}
+
+	/**
+	 * @param otherChecksum The checksum of the current points.
+	 * @param size          The number of current points.
+	 * @return True if the cached sums belong to the same points.
+	 */
+	boolean matches(final long otherChecksum, final int size) {
+		return checksum == otherChecksum && clusters.length == size;
+	}
+
+	/**
+	 * @param i The index of the point.
+	 * @return The ID of the cached cluster of the point.
+	 */
+	int getCluster(final int i) {
+		return clusters[i];
+	}
+
+	/**
+	 * @return The names of the cached clusters, indexed by the ID.
+	 */
+	String[] getClusterNames() {
+		return clusterNames;
+	}
+
+	/**
+	 * @return For each point the sum of its distances to the points of each
+	 *         cached cluster.
+	 */
+	double[][] getSums() {
+		return sums;
+	}
+
+	/**
+	 * Writes the cache to the internals directory of the node.
+	 *
+	 * @param internDir The internals directory.
+	 * @param exec      The execution monitor.
+	 * @throws IOException
+	 * @throws CanceledExecutionException
+	 */
+	void save(final File internDir, final ExecutionMonitor exec) throws IOException, CanceledExecutionException {
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(new File(internDir, FILE_NAME))))) {
+			out.writeLong(checksum);
+			out.writeInt(clusterNames.length);
+			for (String name : clusterNames) {
+				out.writeUTF(name);
+			}
+			out.writeInt(clusters.length);
+			for (int i = 0; i < clusters.length; i++) {
+				exec.checkCanceled();
+				out.writeInt(clusters[i]);
+				for (double sum : sums[i]) {
+					out.writeDouble(sum);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the cache from the internals directory of the node.
+	 *
+	 * @param internDir The internals directory.
+	 * @param exec      The execution monitor.
+	 * @return The cache, or null if no cache has been saved.
+	 * @throws IOException
+	 * @throws CanceledExecutionException
+	 */
+	static SilhouetteCache load(final File internDir, final ExecutionMonitor exec)
+			throws IOException, CanceledExecutionException {
+
+		File file = new File(internDir, FILE_NAME);
+		if (!file.exists()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			long checksum = in.readLong();
+			String[] clusterNames = new String[in.readInt()];
+			for (int c = 0; c < clusterNames.length; c++) {
+				clusterNames[c] = in.readUTF();
+			}
+			int[] clusters = new int[in.readInt()];
+			double[][] sums = new double[clusters.length][clusterNames.length];
+			for (int i = 0; i < clusters.length; i++) {
+				exec.checkCanceled();
+				clusters[i] = in.readInt();
+				for (int c = 0; c < clusterNames.length; c++) {
+					sums[i][c] = in.readDouble();
+				}
+			}
+			return new SilhouetteCache(checksum, clusters, clusterNames, sums);
+		}
+	}
+}
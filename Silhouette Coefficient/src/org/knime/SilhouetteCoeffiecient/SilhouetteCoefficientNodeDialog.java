@@ -1,77 +1,136 @@
-package org.knime.SilhouetteCoeffiecient;
-
-import javax.swing.event.ChangeEvent;
-import javax.swing.event.ChangeListener;
-
-import org.knime.core.data.DoubleValue;
-import org.knime.core.data.StringValue;
-import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
-import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
-import org.knime.core.node.defaultnodesettings.DialogComponentColumnFilter;
-import org.knime.core.node.defaultnodesettings.DialogComponentColumnNameSelection;
-import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
-import org.knime.core.node.defaultnodesettings.DialogComponentNumberEdit;
-import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
-import org.knime.core.node.defaultnodesettings.SettingsModelColumnName;
-import org.knime.core.node.defaultnodesettings.SettingsModelDoubleBounded;
-import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
-import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
-
-/**
- * <code>NodeDialog</code> for the "SilhouetteCoefficient" Node. This node
- * computes the Silhouette Coefficient for the provided clustering result.
- *
- * This node dialog derives from {@link DefaultNodeSettingsPane} which allows
- * creation of a simple dialog with standard components. If you need a more
- * complex dialog please derive directly from
- * {@link org.knime.core.node.NodeDialogPane}.
- * 
- * @author Rytis Kumpa
- */
-public class SilhouetteCoefficientNodeDialog extends DefaultNodeSettingsPane {
-
-
-	@SuppressWarnings("unchecked")
-	protected SilhouetteCoefficientNodeDialog() {
-		super();
-		
-		addDialogComponent(new DialogComponentColumnFilter(
-				new SettingsModelFilterString(SilhouetteCoefficientNodeModel.CFGKEY_FILTER), 0, false, DoubleValue.class));
-
-		final String columnSelectLabel = "Column with cluster names:";
-		addDialogComponent(new DialogComponentColumnNameSelection(
-				new SettingsModelColumnName(SilhouetteCoefficientNodeModel.CFGKEY_CLUSTER, ""), columnSelectLabel, 0,
-				StringValue.class));
-
-		final String randomSamplingLabel = "Randomly sample a subset";
-		final SettingsModelBoolean m_randomSampling = new SettingsModelBoolean(
-				SilhouetteCoefficientNodeModel.CFGKEY_RANDOM, true);
-		addDialogComponent(new DialogComponentBoolean(m_randomSampling, randomSamplingLabel));
-
-		final String sampleSizeLabel = "Size of the sample:";
-		final SettingsModelDoubleBounded m_sampleRate = new SettingsModelDoubleBounded(
-				SilhouetteCoefficientNodeModel.CFGKEY_SAMPLERATE, 0.5, 0.001, 1.0);
-		addDialogComponent(new DialogComponentNumber(m_sampleRate, sampleSizeLabel, 0.1));
-
-		final String randomStateTitle = "Random seed:";
-		final SettingsModelInteger m_randomState = new SettingsModelInteger(SilhouetteCoefficientNodeModel.CFGKEY_STATE,
-				0);
-		addDialogComponent(new DialogComponentNumberEdit(m_randomState, randomStateTitle));
-
-		m_randomSampling.addChangeListener(new ChangeListener() {
-
-			@Override
-			public void stateChanged(ChangeEvent arg0) {
-				if (m_randomSampling.getBooleanValue()) {
-					m_sampleRate.setEnabled(true);
-					m_randomState.setEnabled(true);
-				} else {
-					m_sampleRate.setEnabled(false);
-					m_randomState.setEnabled(false);
-				}
-
-			}
-		});
-
-	}
-}
+package org.knime.SilhouetteCoeffiecient;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.StringValue;
+import org.knime.core.node.defaultnodesettings.DefaultNodeSettingsPane;
+import org.knime.core.node.defaultnodesettings.DialogComponentBoolean;
+import org.knime.core.node.defaultnodesettings.DialogComponentColumnFilter;
+import org.knime.core.node.defaultnodesettings.DialogComponentColumnNameSelection;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumber;
+import org.knime.core.node.defaultnodesettings.DialogComponentNumberEdit;
+import org.knime.core.node.defaultnodesettings.DialogComponentStringSelection;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelColumnName;
+import org.knime.core.node.defaultnodesettings.SettingsModelDoubleBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.distmatrix.type.DistanceVectorDataValue;
+
+/**
+ * <code>NodeDialog</code> for the "SilhouetteCoefficient" Node. This node
+ * computes the Silhouette Coefficient for the provided clustering result.
+ *
+ * This node dialog derives from {@link DefaultNodeSettingsPane} which allows
+ * creation of a simple dialog with standard components. If you need a more
+ * complex dialog please derive directly from
+ * {@link org.knime.core.node.NodeDialogPane}.
+ * 
+ * @author Rytis Kumpa
+ */
+public class SilhouetteCoefficientNodeDialog extends DefaultNodeSettingsPane {
+
+
+	@SuppressWarnings("unchecked")
+	protected SilhouetteCoefficientNodeDialog() {
+		super();
+		
+		addDialogComponent(new DialogComponentColumnFilter(
+				new SettingsModelFilterString(SilhouetteCoefficientNodeModel.CFGKEY_FILTER), 0, false, DoubleValue.class));
+
+		final String columnSelectLabel = "Column with cluster names:";
+		addDialogComponent(new DialogComponentColumnNameSelection(
+				new SettingsModelColumnName(SilhouetteCoefficientNodeModel.CFGKEY_CLUSTER, ""), columnSelectLabel, 0,
+				StringValue.class));
+
+		final String distanceColumnLabel = "Column with the distance matrix:";
+		final SettingsModelString m_distanceColumn = new SettingsModelString(
+				SilhouetteCoefficientNodeModel.CFGKEY_DISTANCE, "");
+		addDialogComponent(new DialogComponentColumnNameSelection(m_distanceColumn, distanceColumnLabel, 0, false, true,
+				DistanceVectorDataValue.class));
+
+		final String modeLabel = "Computation mode:";
+		final SettingsModelString m_mode = new SettingsModelString(SilhouetteCoefficientNodeModel.CFGKEY_MODE,
+				SilhouetteCoefficientNodeModel.MODE_PAIRWISE);
+		addDialogComponent(
+				new DialogComponentStringSelection(m_mode, modeLabel, SilhouetteCoefficientNodeModel.MODES));
+
+		final String randomSamplingLabel = "Randomly sample a subset";
+		final SettingsModelBoolean m_randomSampling = new SettingsModelBoolean(
+				SilhouetteCoefficientNodeModel.CFGKEY_RANDOM, true);
+		addDialogComponent(new DialogComponentBoolean(m_randomSampling, randomSamplingLabel));
+
+		final String sampleSizeLabel = "Size of the sample:";
+		final SettingsModelDoubleBounded m_sampleRate = new SettingsModelDoubleBounded(
+				SilhouetteCoefficientNodeModel.CFGKEY_SAMPLERATE, 0.5, 0.001, 1.0);
+		addDialogComponent(new DialogComponentNumber(m_sampleRate, sampleSizeLabel, 0.1));
+
+		final String randomStateTitle = "Random seed:";
+		final SettingsModelInteger m_randomState = new SettingsModelInteger(SilhouetteCoefficientNodeModel.CFGKEY_STATE,
+				0);
+		addDialogComponent(new DialogComponentNumberEdit(m_randomState, randomStateTitle));
+
+		final String pointsPerClusterLabel = "Points sampled per cluster:";
+		final SettingsModelIntegerBounded m_pointsPerCluster = new SettingsModelIntegerBounded(
+				SilhouetteCoefficientNodeModel.CFGKEY_POINTS_PER_CLUSTER,
+				SilhouetteCoefficientNodeModel.DEFAULT_POINTS_PER_CLUSTER, 2, Integer.MAX_VALUE);
+		addDialogComponent(new DialogComponentNumber(m_pointsPerCluster, pointsPerClusterLabel, 10));
+
+		final String batchSizeLabel = "Points per batch:";
+		final SettingsModelIntegerBounded m_batchSize = new SettingsModelIntegerBounded(
+				SilhouetteCoefficientNodeModel.CFGKEY_BATCH_SIZE, SilhouetteCoefficientNodeModel.DEFAULT_BATCH_SIZE, 1,
+				Integer.MAX_VALUE);
+		addDialogComponent(new DialogComponentNumber(m_batchSize, batchSizeLabel, 10));
+
+		final String toleranceLabel = "Confidence interval half-width:";
+		final SettingsModelDoubleBounded m_tolerance = new SettingsModelDoubleBounded(
+				SilhouetteCoefficientNodeModel.CFGKEY_TOLERANCE, SilhouetteCoefficientNodeModel.DEFAULT_TOLERANCE, 0.0,
+				2.0);
+		addDialogComponent(new DialogComponentNumber(m_tolerance, toleranceLabel, 0.005));
+
+		final String timeLimitLabel = "Time limit in seconds (0 for none):";
+		final SettingsModelIntegerBounded m_timeLimit = new SettingsModelIntegerBounded(
+				SilhouetteCoefficientNodeModel.CFGKEY_TIME_LIMIT, 0, 0, Integer.MAX_VALUE);
+		addDialogComponent(new DialogComponentNumber(m_timeLimit, timeLimitLabel, 60));
+
+		// Further clusterings of the same points, evaluated in the pairwise mode.
+		createNewTab("Additional clusterings");
+		final SettingsModelFilterString m_sweepColumns = new SettingsModelFilterString(
+				SilhouetteCoefficientNodeModel.CFGKEY_SWEEP);
+		addDialogComponent(new DialogComponentColumnFilter(m_sweepColumns, 0, false, StringValue.class));
+
+		ChangeListener samplingListener = new ChangeListener() {
+
+			@Override
+			public void stateChanged(ChangeEvent arg0) {
+				// The sample rate only applies to the pairwise computations, the
+				// stratified sampling draws a fixed number of points per cluster.
+				String mode = m_mode.getStringValue();
+				boolean pairwise = SilhouetteCoefficientNodeModel.MODE_PAIRWISE.equals(mode)
+						|| SilhouetteCoefficientNodeModel.MODE_PRUNED.equals(mode);
+				boolean stratified = SilhouetteCoefficientNodeModel.MODE_STRATIFIED.equals(mode);
+				boolean anytime = SilhouetteCoefficientNodeModel.MODE_ANYTIME.equals(mode);
+				boolean sampleRate = pairwise && m_randomSampling.getBooleanValue();
+				m_randomSampling.setEnabled(pairwise);
+				m_sampleRate.setEnabled(sampleRate);
+				m_randomState.setEnabled(sampleRate || stratified || anytime);
+				m_pointsPerCluster.setEnabled(stratified);
+				m_batchSize.setEnabled(anytime);
+				m_tolerance.setEnabled(anytime);
+				m_timeLimit.setEnabled(anytime);
+				m_sweepColumns.setEnabled(SilhouetteCoefficientNodeModel.MODE_PAIRWISE.equals(mode));
+				// Only the modes that compare the points one by one can look up the
+				// distances in a matrix.
+				m_distanceColumn.setEnabled(SilhouetteCoefficientNodeModel.MODE_PAIRWISE.equals(mode) || anytime);
+
+			}
+		};
+		m_randomSampling.addChangeListener(samplingListener);
+		m_mode.addChangeListener(samplingListener);
+
+	}
+}
@@ -1,567 +1,1545 @@
-package org.knime.SilhouetteCoeffiecient;
-
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Random;
-import java.util.Set;
-import java.util.stream.Collectors;
-
-import org.knime.core.data.DataCell;
-import org.knime.core.data.DataColumnSpec;
-import org.knime.core.data.DataColumnSpecCreator;
-import org.knime.core.data.DataRow;
-import org.knime.core.data.DataTable;
-import org.knime.core.data.DataTableSpec;
-import org.knime.core.data.DataTableSpecCreator;
-import org.knime.core.data.DoubleValue;
-import org.knime.core.data.MissingValue;
-import org.knime.core.data.MissingValueException;
-import org.knime.core.data.RowIterator;
-import org.knime.core.data.RowKey;
-import org.knime.core.data.append.AppendedColumnRow;
-
-import static org.knime.core.data.RowKey.createRowKey;
-import org.knime.core.data.container.DataContainer;
-import org.knime.core.data.def.DefaultRow;
-import org.knime.core.data.def.DoubleCell;
-import org.knime.core.node.BufferedDataContainer;
-import org.knime.core.node.BufferedDataTable;
-import org.knime.core.node.CanceledExecutionException;
-import org.knime.core.node.ExecutionContext;
-import org.knime.core.node.ExecutionMonitor;
-import org.knime.core.node.InvalidSettingsException;
-import org.knime.core.node.NodeModel;
-import org.knime.core.node.NodeSettingsRO;
-import org.knime.core.node.NodeSettingsWO;
-import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
-import org.knime.core.node.defaultnodesettings.SettingsModelColumnName;
-import org.knime.core.node.defaultnodesettings.SettingsModelDoubleBounded;
-import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
-import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
-import org.omg.CORBA.PRIVATE_MEMBER;
-
-import sun.net.www.content.audio.x_aiff;
-
-/**
- * This is the model implementation of SilhouetteCoefficient. This node computes
- * the Silhouette Coefficient for the provided clustering result.
- *
- * @author Rytis Kumpa
- */
-public class SilhouetteCoefficientNodeModel extends NodeModel {
-
-	// Configuration keys for retrieving the settings values
-	static final String CFGKEY_FILTER = "Include columns";
-	static final String CFGKEY_CLUSTER = "Cluster allocation";
-	static final String CFGKEY_RANDOM = "Random sampling";
-	static final String CFGKEY_SAMPLERATE = "Sample rate";
-	static final String CFGKEY_STATE = "Random state";
-
-	// Settings models
-	private final SettingsModelColumnName m_clusterColumn = new SettingsModelColumnName(CFGKEY_CLUSTER, "");
-
-	private final SettingsModelFilterString m_filterColumns = new SettingsModelFilterString(CFGKEY_FILTER);
-
-	private final SettingsModelBoolean m_randomSampling = new SettingsModelBoolean(CFGKEY_RANDOM, true);
-
-	private final SettingsModelDoubleBounded m_sampleRate = new SettingsModelDoubleBounded(CFGKEY_SAMPLERATE, 0.5, 0.0,
-			1.0);
-
-	private final SettingsModelInteger m_randomState = new SettingsModelInteger(
-			SilhouetteCoefficientNodeModel.CFGKEY_STATE, 0);
-
-	// Data containers for storing cluster information.
-	private HashMap<String, DataContainer> clusters = new HashMap<String, DataContainer>();
-
-	private HashMap<String, ArrayList<Double>> clusterCentroids = new HashMap<String, ArrayList<Double>>();
-
-	/**
-	 * Constructor for the node model.
-	 */
-	protected SilhouetteCoefficientNodeModel() {
-		super(1, 2);
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected BufferedDataTable[] execute(final BufferedDataTable[] inData, final ExecutionContext exec)
-			throws Exception {
-
-		DataTableSpec inTableSpec = inData[0].getDataTableSpec();
-		
-		DataTableSpec outTableSpec = configure(new DataTableSpec[] { inTableSpec })[0];
-		
-		DataTableSpec resultDataTableSpec = configure(new DataTableSpec[] { inTableSpec })[1];
-
-		BufferedDataContainer outputContainer = exec.createDataContainer(outTableSpec);
-		
-		BufferedDataContainer resultContainer = exec.createDataContainer(resultDataTableSpec);
-
-		clusters = new HashMap<String, DataContainer>();
-
-		clusterCentroids = new HashMap<String, ArrayList<Double>>();
-
-		Random rand = new java.util.Random(m_randomState.getIntValue());
-
-		int clusterNameColumnID = inTableSpec.findColumnIndex(m_clusterColumn.getStringValue());
-		int[] includeColumnID = inTableSpec
-				.columnsToIndices((String[]) m_filterColumns.getIncludeList().stream().toArray(String[]::new));
-
-		Aggregator overallSC = new Aggregator();
-		long i = 0;
-
-		// The data is read and processed accordingly.
-		RowIterator rowIterator = inData[0].iterator();
-		while (rowIterator.hasNext()) {
-			exec.checkCanceled();
-			double randomThreshold = 1.0;
-			DataRow currentRow = rowIterator.next();
-			if (m_randomSampling.getBooleanValue()) {
-				randomThreshold = m_sampleRate.getDoubleValue();
-			} else {
-				randomThreshold = 1.0;
-			}
-			if (randomThreshold >= rand.nextDouble()) {
-				exec.setProgress(i / inData[0].size() * randomThreshold, "Processing row: " + i++);
-
-				DataCell[] row1 = new DataCell[includeColumnID.length];
-				ArrayList<Double> row1Doubles = new ArrayList<Double>();
-
-				String clusterName = currentRow.getCell(clusterNameColumnID).toString();
-
-				for (int j = 0; j < includeColumnID.length; j++) {
-					DataCell cell = currentRow.getCell(includeColumnID[j]);
-					if (!cell.isMissing()) {
-						row1[j] = cell;
-						row1Doubles.add(((DoubleValue) cell).getDoubleValue());
-					} else {
-						throw new MissingValueException((MissingValue) cell);
-					}
-				}
-
-				HashMap<String, Aggregator> currentRowAggregator = new HashMap<String, Aggregator>();
-
-				RowIterator rowIterator2 = inData[0].iterator();
-
-				while (rowIterator2.hasNext()) {
-					DataRow row2 = rowIterator2.next();
-					if (!row2.getKey().equals(currentRow.getKey())) {
-						DataCell[] row2Cells = new DataCell[includeColumnID.length];
-						String row2ClusterName = row2.getCell(clusterNameColumnID).toString();
-						ArrayList<Double> row2Doubles = new ArrayList<Double>();
-						for (int j = 0; j < includeColumnID.length; j++) {
-							DataCell cell = row2.getCell(includeColumnID[j]);
-							if (!cell.isMissing()) {
-								row2Cells[j] = cell;
-								row2Doubles.add(((DoubleValue) cell).getDoubleValue());
-							} else {
-								throw new MissingValueException((MissingValue) cell);
-							}
-						}
-						Aggregator aggregator = currentRowAggregator.computeIfAbsent(row2ClusterName,
-								x -> new Aggregator());						
-						aggregator.addDistance(euclidianDistance(row1Doubles, row2Doubles));
-					}
-				}
-
-				if (currentRowAggregator.size() < 2) {
-					throw new IllegalStateException(
-							"There have to be at least two clusters for Silhouette Coefficient to be computed.");
-				}
-
-				double currentClusterDist = currentRowAggregator.get(clusterName).getMean();
-				double closestClusterDist = Double.MAX_VALUE;
-				for (String otherClusterName : currentRowAggregator.keySet()) {
-					if (!otherClusterName.equals(clusterName)) {
-						double dist = currentRowAggregator.get(otherClusterName).getMean();
-						if(closestClusterDist > dist) {
-							closestClusterDist = dist;
-						}
-					}
-				}
-				double silhouetteCoefficient = (closestClusterDist - currentClusterDist)
-						/ Math.max(currentClusterDist, closestClusterDist);
-				DataCell silhouetteCell = new DoubleCell(silhouetteCoefficient);
-				outputContainer.addRowToTable(new AppendedColumnRow(currentRow, silhouetteCell));
-				overallSC.addDistance(silhouetteCoefficient);
-			}
-		}
-		
-		outputContainer.close();
-		
-		DataRow resultRow = new DefaultRow(new RowKey("Silhouette Coefficient"), new DoubleCell(overallSC.getMean()));
-		
-		resultContainer.addRowToTable(resultRow);
-		
-		resultContainer.close();
-//
-//		while (rowIterator.hasNext()) {
-//			exec.checkCanceled();
-//			exec.setProgress(0.05 / 1.0, "Reading Data.");
-//			double randomThreshold = 0.0;
-//			DataRow currentRow = rowIterator.next();
-//			if (m_randomSampling.getBooleanValue()) {
-//				randomThreshold = m_sampleRate.getDoubleValue();
-//			} else {
-//				randomThreshold = 1.0;
-//			}
-//			// Only if the random value is lower than the threshold, we process the row.
-//			if (randomThreshold >= rand.nextDouble()) {
-//				DataCell[] newRow = new DataCell[includeColumnID.length];
-//				String clusterName = currentRow.getCell(clusterNameColumnID).toString();
-//				if (clusters.containsKey(clusterName)) {
-//					for (int i = 0; i < includeColumnID.length; i++) {
-//						DataCell cell = currentRow.getCell(includeColumnID[i]);
-//						if (!cell.isMissing()) {
-//							newRow[i] = cell;
-//						} else {
-//							throw new MissingValueException((MissingValue) cell);
-//						}
-//
-//					}
-//					RowKey rowKey = createRowKey(clusters.get(clusterName).size());
-//					clusters.get(clusterName).addRowToTable(new DefaultRow(rowKey, newRow));
-//				} else {
-//					DataContainer container = exec.createDataContainer(createDataTableSpecs(inTableSpec));
-//					clusters.put(clusterName, container);
-//					for (int i = 0; i < includeColumnID.length; i++) {
-//						DataCell cell = currentRow.getCell(includeColumnID[i]);
-//						if (!cell.isMissing()) {
-//							newRow[i] = cell;
-//						} else {
-//							throw new MissingValueException((MissingValue) cell);
-//						}
-//
-//					}
-//					RowKey rowKey = createRowKey(clusters.get(clusterName).size());
-//					clusters.get(clusterName).addRowToTable(new DefaultRow(rowKey, newRow));
-//				}
-//			}
-//			exec.setProgress(0.1 / 1.0, "Data read.");
-//		}
-//
-//		// DataContainer has to be closed so that the stored information can be
-//		// retrieved.
-//		for (String cluster : clusters.keySet()) {
-//			clusters.get(cluster).close();
-//		}
-//
-//		// Cluster Centroids are computed, so that closest clusters are found.
-//		if (clusters.size() > 1) {
-//			computeClusterCentroids();
-//		} else {
-//			throw new Exception("There have to be at least two clusters for Silhouette Coefficient to be computed.");
-//		}
-//
-//		HashMap<String, String> closestCluster = new HashMap<String, String>();
-//
-//		closestCluster = computeClosestClusters();
-//
-//		double clusterInDistance = 0.0;
-//		double clusterOutDistance = 0.0;
-//		int i = 0;
-//
-//		// Main loop, where the Silhouette Coefficient is computed.
-//		for (String cluster : clusters.keySet()) {
-//
-//			exec.setProgress((double) i / (double) clusters.size(), "Processing cluster: " + i);
-//			exec.checkCanceled();
-//
-//			double currentClusterInDistance = 0.0;
-//			DataTable clusterTable = clusters.get(cluster).getTable();
-//			RowIterator iterator = clusterTable.iterator();
-//			long clusterSize = 0;
-//			boolean clusterSizeCounted = false;
-//
-//			// Inter-cluster distance is computed for each sample.
-//			while (iterator.hasNext()) {
-//
-//				exec.checkCanceled();
-//
-//				DataRow row1 = iterator.next();
-//				ArrayList<Double> row1Doubles = row1.stream().map(x -> ((DoubleValue) x).getDoubleValue())
-//						.collect(Collectors.toCollection(ArrayList::new));
-//				RowIterator secondIterator = clusterTable.iterator();
-//
-//				while (secondIterator.hasNext()) {
-//					DataRow row2 = secondIterator.next();
-//					ArrayList<Double> row2Doubles = row2.stream().map(x -> ((DoubleValue) x).getDoubleValue())
-//							.collect(Collectors.toCollection(ArrayList::new));
-//					if (!clusterSizeCounted) {
-//						clusterSize++;
-//					}
-//					currentClusterInDistance += euclidianDistance(row1Doubles, row2Doubles);
-//				}
-//				clusterSizeCounted = true;
-//				currentClusterInDistance = currentClusterInDistance / clusterSize;
-//
-//			}
-//			currentClusterInDistance = currentClusterInDistance / clusterSize;
-//			clusterInDistance += currentClusterInDistance;
-//
-//			double currentClusterOutDistance = 0.0;
-//			iterator = clusterTable.iterator();
-//			DataTable closestClusterTable = clusters.get(closestCluster.get(cluster)).getTable();
-//			long closestClusterSize = 0;
-//			boolean closestClusterSizeCounted = false;
-//
-//			// Intra-cluster distance is computed for each sample.
-//			while (iterator.hasNext()) {
-//
-//				exec.checkCanceled();
-//
-//				DataRow row1 = iterator.next();
-//				ArrayList<Double> row1Doubles = row1.stream().map(x -> ((DoubleValue) x).getDoubleValue())
-//						.collect(Collectors.toCollection(ArrayList::new));
-//				RowIterator secondIterator = closestClusterTable.iterator();
-//
-//				while (secondIterator.hasNext()) {
-//					DataRow row2 = secondIterator.next();
-//					ArrayList<Double> row2Doubles = row2.stream().map(x -> ((DoubleValue) x).getDoubleValue())
-//							.collect(Collectors.toCollection(ArrayList::new));
-//					if (!closestClusterSizeCounted) {
-//						closestClusterSize++;
-//					}
-//					currentClusterOutDistance += euclidianDistance(row1Doubles, row2Doubles);
-//				}
-//				closestClusterSizeCounted = true;
-//				currentClusterOutDistance = currentClusterOutDistance / closestClusterSize;
-//			}
-//			currentClusterOutDistance = currentClusterOutDistance / clusterSize;
-//			clusterOutDistance += currentClusterOutDistance;
-//			i++;
-//		}
-//		clusterInDistance = clusterInDistance / clusters.size();
-//		clusterOutDistance = clusterOutDistance / clusters.size();
-//
-//		exec.checkCanceled();
-//
-//		double sillhoetteCoefficient = (clusterOutDistance - clusterInDistance)
-//				/ Double.max(clusterInDistance, clusterOutDistance);
-//
-//		DataCell sICell = new DoubleCell(sillhoetteCoefficient);
-//
-//		outputContainer.addRowToTable(new DefaultRow(createRowKey((long) 1), sICell));
-//
-//		outputContainer.close();
-//
-//		closestCluster = null;
-//		clusterCentroids = null;
-//		clusters = null;
-
-		return new BufferedDataTable[] { outputContainer.getTable(), resultContainer.getTable() };
-	}
-
-	/**
-	 * Calculates the closest cluster for each cluster.
-	 * 
-	 * @return A HashMap where the String name of each cluster is mapped to the
-	 *         String name of the closest cluster.
-	 */
-	private HashMap<String, String> computeClosestClusters() {
-
-		HashMap<String, String> closestClusters = new HashMap<String, String>();
-
-		for (String cluster : clusterCentroids.keySet()) {
-
-			Set<String> otherClusters = clusterCentroids.keySet().stream().collect(Collectors.toSet());
-			otherClusters.remove(cluster);
-			closestClusters.put(cluster, otherClusters.iterator().next());
-
-			for (String otherCluster : otherClusters) {
-				double currentDistance = euclidianDistance(clusterCentroids.get(cluster),
-						clusterCentroids.get(closestClusters.get(cluster)));
-				double otherClusterDistance = euclidianDistance(clusterCentroids.get(cluster),
-						clusterCentroids.get(otherCluster));
-				if (currentDistance > otherClusterDistance) {
-					closestClusters.put(cluster, otherCluster);
-				}
-			}
-		}
-		return closestClusters;
-	}
-
-	/**
-	 * Computes the Euclidian Distance for two points.
-	 * 
-	 * @param p1 - An ArrayList with double values for the point.
-	 * @param p2 - An ArrayList with double values for the other point.
-	 * @return Returns the distance as a double value.
-	 */
-	private double euclidianDistance(ArrayList<Double> p1, ArrayList<Double> p2) {
-
-		double distance = 0.0;
-
-		for (int i = 0; i < p1.size(); i++) {
-			double temp = p2.get(i) - p1.get(i);
-			distance += Math.pow(temp, 2.0);
-		}
-
-		return Math.sqrt(distance);
-	}
-
-	private class Aggregator {
-		private long count = 0;
-		private double distance = 0.0;
-
-		public void addDistance(final double dist) {
-			count++;
-			distance += dist;
-		}
-
-		public double getMean() {
-			return distance / (double) count;
-		}
-
-	}
-
-	/**
-	 * Computes the cluster centroids for currently existing DataContainer in
-	 * clusters HashMap.
-	 */
-	private void computeClusterCentroids() {
-
-		for (String cluster : clusters.keySet().stream().toArray(String[]::new)) {
-
-			Iterator<DataRow> iter = clusters.get(cluster).getTable().iterator();
-
-			ArrayList<Double> center = iter.next().stream().map(x -> ((DoubleValue) x).getDoubleValue())
-					.collect(Collectors.toCollection(ArrayList::new));
-
-			while (iter.hasNext()) {
-				ArrayList<Double> point = iter.next().stream().map(x -> ((DoubleValue) x).getDoubleValue())
-						.collect(Collectors.toCollection(ArrayList::new));
-				for (int i = 0; i < point.size(); i++) {
-					center.set(i, point.get(i) + center.get(i));
-				}
-			}
-
-			center = center.stream().map(x -> (Double) x / clusters.get(cluster).size())
-					.collect(Collectors.toCollection(ArrayList::new));
-
-			clusterCentroids.put(cluster, center);
-		}
-	}
-
-	/**
-	 * Creates the DataTableSpec for the Data Containers that will be used for
-	 * computing the Silhouette Coefficient.
-	 * 
-	 * @param spec The DataTableSpec of the input table.
-	 * @return Returns the DataTableSpec of the table.
-	 */
-	private DataTableSpec createDataTableSpecs(DataTableSpec spec) {
-
-		DataTableSpecCreator specCreator = new DataTableSpecCreator();
-
-		for (String column : m_filterColumns.getIncludeList()) {
-			specCreator.addColumns(new DataColumnSpecCreator(column, DoubleCell.TYPE).createSpec());
-		}
-
-		return specCreator.createSpec();
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void reset() {
-
-		clusters = new HashMap<String, DataContainer>();
-		clusterCentroids = new HashMap<String, ArrayList<Double>>();
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
-
-		if (m_filterColumns.getIncludeList().isEmpty()) {
-			throw new InvalidSettingsException("No numeric columns selected from input.");
-		}
-
-		// DataColumnSpec[] colSpecs = new DataColumnSpec[1];
-		// colSpecs[0] = new DataColumnSpecCreator("Silhouette Coefficient",
-		// DoubleCell.TYPE).createSpec();
-		// DataTableSpec outSpec = new DataTableSpec(colSpecs);
-
-		DataTableSpec inSpec = inSpecs[0];
-		DataColumnSpec newColumnSpec = new DataColumnSpecCreator("Silhouette Coefficient", DoubleCell.TYPE)
-				.createSpec();
-		DataTableSpec appendedSpec = new DataTableSpec(newColumnSpec);
-		DataTableSpec outSpec = new DataTableSpec(inSpec, appendedSpec);
-
-		DataTableSpecCreator resulTableSpecCreator = new DataTableSpecCreator();
-		resulTableSpecCreator
-				.addColumns(new DataColumnSpecCreator("Value", DoubleCell.TYPE).createSpec());
-
-		return new DataTableSpec[] { outSpec, resulTableSpecCreator.createSpec() };
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void saveSettingsTo(final NodeSettingsWO settings) {
-
-		m_clusterColumn.saveSettingsTo(settings);
-		m_filterColumns.saveSettingsTo(settings);
-		m_randomState.saveSettingsTo(settings);
-		m_randomSampling.saveSettingsTo(settings);
-		m_sampleRate.saveSettingsTo(settings);
-
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
-
-		m_clusterColumn.loadSettingsFrom(settings);
-		m_filterColumns.loadSettingsFrom(settings);
-		m_randomSampling.loadSettingsFrom(settings);
-		m_randomState.loadSettingsFrom(settings);
-		m_sampleRate.loadSettingsFrom(settings);
-
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
-
-		m_clusterColumn.validateSettings(settings);
-		m_filterColumns.validateSettings(settings);
-		m_randomSampling.validateSettings(settings);
-		m_randomState.validateSettings(settings);
-		m_sampleRate.validateSettings(settings);
-
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void loadInternals(final File internDir, final ExecutionMonitor exec)
-			throws IOException, CanceledExecutionException {
-
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	protected void saveInternals(final File internDir, final ExecutionMonitor exec)
-			throws IOException, CanceledExecutionException {
-
-	}
-
-}
+package org.knime.SilhouetteCoeffiecient;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataTableSpecCreator;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.MissingValue;
+import org.knime.core.data.MissingValueException;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.container.ColumnRearranger;
+import org.knime.core.data.container.SingleCellFactory;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.defaultnodesettings.SettingsModel;
+import org.knime.core.node.defaultnodesettings.SettingsModelBoolean;
+import org.knime.core.node.defaultnodesettings.SettingsModelColumnName;
+import org.knime.core.node.defaultnodesettings.SettingsModelDoubleBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelFilterString;
+import org.knime.core.node.defaultnodesettings.SettingsModelInteger;
+import org.knime.core.node.defaultnodesettings.SettingsModelIntegerBounded;
+import org.knime.core.node.defaultnodesettings.SettingsModelString;
+import org.knime.distmatrix.type.DistanceVectorDataValue;
+
+/**
+ * This is the model implementation of SilhouetteCoefficient. This node computes
+ * the Silhouette Coefficient for the provided clustering result.
+ *
+ * @author Rytis Kumpa
+ */
+public class SilhouetteCoefficientNodeModel extends NodeModel {
+
+	// Configuration keys for retrieving the settings values
+	static final String CFGKEY_FILTER = "Include columns";
+	static final String CFGKEY_CLUSTER = "Cluster allocation";
+	static final String CFGKEY_RANDOM = "Random sampling";
+	static final String CFGKEY_SAMPLERATE = "Sample rate";
+	static final String CFGKEY_STATE = "Random state";
+	static final String CFGKEY_MODE = "Computation mode";
+	static final String CFGKEY_POINTS_PER_CLUSTER = "Points per cluster";
+	static final String CFGKEY_BATCH_SIZE = "Batch size";
+	static final String CFGKEY_TOLERANCE = "Tolerance";
+	static final String CFGKEY_TIME_LIMIT = "Time limit";
+	static final String CFGKEY_SWEEP = "Additional cluster columns";
+	static final String CFGKEY_DISTANCE = "Distance matrix column";
+
+	// Computation modes
+	static final String MODE_PAIRWISE = "Pairwise (Euclidean)";
+	static final String MODE_PRUNED = "Pairwise with pruning (Euclidean)";
+	static final String MODE_SQUARED_EUCLIDEAN = "Cluster statistics (squared Euclidean)";
+	static final String MODE_STRATIFIED = "Stratified sampling (Euclidean)";
+	static final String MODE_ANYTIME = "Anytime (Euclidean)";
+	static final String MODE_INCREMENTAL = "Incremental (Euclidean)";
+	static final String MODE_OUT_OF_CORE = "Out-of-core pairwise (Euclidean)";
+	static final String[] MODES = { MODE_PAIRWISE, MODE_PRUNED, MODE_SQUARED_EUCLIDEAN, MODE_STRATIFIED,
+			MODE_ANYTIME, MODE_INCREMENTAL, MODE_OUT_OF_CORE };
+
+	static final int DEFAULT_POINTS_PER_CLUSTER = 100;
+	static final int DEFAULT_BATCH_SIZE = 100;
+	static final double DEFAULT_TOLERANCE = 0.01;
+
+	// The anytime mode does not stop on precision or time before this many points
+	// have been evaluated, since the standard error of a tiny sample is
+	// unreliable and an empty sample has no estimate at all.
+	private static final int MIN_ANYTIME_POINTS = 30;
+
+	// The total size of the two coordinate buffers and the two distance sum
+	// buffers of the out-of-core mode.
+	private static final long TILE_BYTES = 32L << 20;
+
+	// Settings models
+	private final SettingsModelColumnName m_clusterColumn = new SettingsModelColumnName(CFGKEY_CLUSTER, "");
+
+	private final SettingsModelFilterString m_filterColumns = new SettingsModelFilterString(CFGKEY_FILTER);
+
+	private final SettingsModelBoolean m_randomSampling = new SettingsModelBoolean(CFGKEY_RANDOM, true);
+
+	private final SettingsModelDoubleBounded m_sampleRate = new SettingsModelDoubleBounded(CFGKEY_SAMPLERATE, 0.5, 0.0,
+			1.0);
+
+	private final SettingsModelInteger m_randomState = new SettingsModelInteger(
+			SilhouetteCoefficientNodeModel.CFGKEY_STATE, 0);
+
+	private final SettingsModelString m_mode = new SettingsModelString(CFGKEY_MODE, MODE_PAIRWISE);
+
+	private final SettingsModelIntegerBounded m_pointsPerCluster = new SettingsModelIntegerBounded(
+			CFGKEY_POINTS_PER_CLUSTER, DEFAULT_POINTS_PER_CLUSTER, 2, Integer.MAX_VALUE);
+
+	private final SettingsModelIntegerBounded m_batchSize = new SettingsModelIntegerBounded(CFGKEY_BATCH_SIZE,
+			DEFAULT_BATCH_SIZE, 1, Integer.MAX_VALUE);
+
+	private final SettingsModelDoubleBounded m_tolerance = new SettingsModelDoubleBounded(CFGKEY_TOLERANCE,
+			DEFAULT_TOLERANCE, 0.0, 2.0);
+
+	// The time limit in seconds, 0 means no limit.
+	private final SettingsModelIntegerBounded m_timeLimit = new SettingsModelIntegerBounded(CFGKEY_TIME_LIMIT, 0, 0,
+			Integer.MAX_VALUE);
+
+	// Further clusterings of the same points that are evaluated in the pairwise
+	// mode, e.g. the results of k-means for several values of k.
+	private final SettingsModelFilterString m_sweepColumns = new SettingsModelFilterString(CFGKEY_SWEEP);
+
+	// The column with a precomputed distance matrix, empty to compute the
+	// Euclidean distance from the included columns.
+	private final SettingsModelString m_distanceColumn = new SettingsModelString(CFGKEY_DISTANCE, "");
+
+	// The distance sums of the last incremental computation. They are kept on
+	// reset, so that the next execution with changed labels can reuse them.
+	private SilhouetteCache cache = null;
+
+	/**
+	 * Constructor for the node model.
+	 */
+	protected SilhouetteCoefficientNodeModel() {
+		super(1, 3);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected BufferedDataTable[] execute(final BufferedDataTable[] inData, final ExecutionContext exec)
+			throws Exception {
+
+		DataTableSpec inTableSpec = inData[0].getDataTableSpec();
+		
+		DataTableSpec resultDataTableSpec = configure(new DataTableSpec[] { inTableSpec })[1];
+
+		DataTableSpec summaryDataTableSpec = configure(new DataTableSpec[] { inTableSpec })[2];
+
+		BufferedDataContainer resultContainer = exec.createDataContainer(resultDataTableSpec);
+
+		BufferedDataContainer summaryContainer = exec.createDataContainer(summaryDataTableSpec);
+
+		Random rand = new java.util.Random(m_randomState.getIntValue());
+
+		int clusterNameColumnID = inTableSpec.findColumnIndex(m_clusterColumn.getStringValue());
+		int[] includeColumnID = inTableSpec
+				.columnsToIndices((String[]) m_filterColumns.getIncludeList().stream().toArray(String[]::new));
+		int distanceColumnID = getDistanceColumnID(inTableSpec);
+		String[] sweepColumns = getSweepColumns();
+		int[] sweepColumnID = inTableSpec.columnsToIndices(sweepColumns);
+
+		SilhouetteEstimate estimate;
+		SilhouetteEstimate[] sweepEstimates = new SilhouetteEstimate[0];
+		ClusterSummary summary = new ClusterSummary();
+		String mode = m_mode.getStringValue();
+
+		// The coefficient of each row, keyed by the row index and NaN for the rows
+		// that are not evaluated. The streaming and out-of-core modes keep it in a
+		// memory-mapped file, like their other per-row data.
+		boolean onHeap = !MODE_SQUARED_EUCLIDEAN.equals(mode) && !MODE_OUT_OF_CORE.equals(mode);
+		BufferedDataTable outTable;
+		try (LargeDoubleArray values = LargeDoubleArray.create(inData[0].size(), onHeap)) {
+			values.fill(Double.NaN);
+			if (MODE_SQUARED_EUCLIDEAN.equals(mode)) {
+				estimate = computeSquaredEuclideanSilhouette(inData[0], clusterNameColumnID, includeColumnID,
+						values, summary, exec);
+			} else if (MODE_PRUNED.equals(mode)) {
+				estimate = computePrunedSilhouette(inData[0], clusterNameColumnID, includeColumnID, values,
+						summary, rand, exec);
+			} else if (MODE_STRATIFIED.equals(mode)) {
+				estimate = computeStratifiedSilhouette(inData[0], clusterNameColumnID, includeColumnID, values,
+						summary, rand, exec);
+			} else if (MODE_OUT_OF_CORE.equals(mode)) {
+				estimate = computeOutOfCoreSilhouette(inData[0], clusterNameColumnID, includeColumnID, values,
+						summary, exec);
+			} else if (MODE_INCREMENTAL.equals(mode)) {
+				estimate = computeIncrementalSilhouette(inData[0], clusterNameColumnID, includeColumnID, values,
+						summary, exec);
+			} else if (MODE_ANYTIME.equals(mode)) {
+				estimate = computeAnytimeSilhouette(inData[0], clusterNameColumnID, distanceColumnID,
+						includeColumnID, values, summary, rand, exec);
+			} else {
+				SilhouetteEstimate[] estimates = computePairwiseSilhouette(inData[0], clusterNameColumnID,
+						sweepColumnID, distanceColumnID, includeColumnID, values, summary, rand, exec);
+				estimate = estimates[0];
+				sweepEstimates = Arrays.copyOfRange(estimates, 1, estimates.length);
+			}
+		
+			// Only the new column is stored, the input columns are referenced.
+			ColumnRearranger rearranger = new ColumnRearranger(inTableSpec);
+			rearranger.append(new SilhouetteCellFactory(createSilhouetteColumnSpec(), values));
+			outTable = exec.createColumnRearrangeTable(inData[0], rearranger, exec.createSubProgress(0.1));
+		}
+		
+		resultContainer.addRowToTable(createResultRow(new RowKey("Silhouette Coefficient"), estimate));
+
+		// One further row for each additional cluster column, keyed by its name.
+		for (int l = 0; l < sweepEstimates.length; l++) {
+			resultContainer.addRowToTable(createResultRow(new RowKey(sweepColumns[l]), sweepEstimates[l]));
+		}
+		
+		resultContainer.close();
+
+		summary.writeTo(summaryContainer);
+
+		summaryContainer.close();
+
+		return new BufferedDataTable[] { outTable, resultContainer.getTable(),
+				summaryContainer.getTable() };
+	}
+
+	/**
+	 * Computes the Silhouette Coefficient for each (sampled) point by comparing it
+	 * with every other point of the table. The points are read once into
+	 * primitive arrays with the cluster names replaced by integer IDs, so the
+	 * distances are summed per cluster in a reused array and the inner loop does
+	 * not allocate anything. Since the distances do not depend on the cluster
+	 * allocation, each distance is computed once and added to the sums of every
+	 * cluster column, so further clusterings of the same points only add the
+	 * cost of summing. If a distance matrix column is given, the distances are
+	 * looked up in the matrix instead of being computed.
+	 * 
+	 * @param table               The input table.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param sweepColumnID       The indices of the additional columns with
+	 *                            cluster names.
+	 * @param distanceColumnID    The index of the column with the distance
+	 *                            matrix, or -1 to use the Euclidean distance.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param values              The array the coefficient of each row is stored
+	 *                            in, NaN for the rows that are not evaluated.
+	 * @param summary             The per-cluster summary of the coefficients.
+	 * @param rand                The random generator used for sampling.
+	 * @param exec                The execution context.
+	 * @return The overall coefficient of the cluster column, followed by the one
+	 *         of each additional cluster column.
+	 * @throws CanceledExecutionException
+	 */
+	private SilhouetteEstimate[] computePairwiseSilhouette(final BufferedDataTable table,
+			final int clusterNameColumnID, final int[] sweepColumnID, final int distanceColumnID,
+			final int[] includeColumnID, final LargeDoubleArray values, final ClusterSummary summary,
+			final Random rand, final ExecutionContext exec) throws CanceledExecutionException {
+
+		int[] clusterColumnIDs = new int[sweepColumnID.length + 1];
+		clusterColumnIDs[0] = clusterNameColumnID;
+		System.arraycopy(sweepColumnID, 0, clusterColumnIDs, 1, sweepColumnID.length);
+
+		PointData[] labellings = PointData.read(table, clusterColumnIDs, distanceColumnID, includeColumnID,
+				exec.createSubProgress(0.1));
+		for (PointData labelling : labellings) {
+			if (labelling.getLabels().size() < 2) {
+				throw new IllegalStateException(
+						"There have to be at least two clusters for Silhouette Coefficient to be computed.");
+			}
+		}
+
+		PointData data = labellings[0];
+		Aggregator[] aggregators = new Aggregator[labellings.length];
+		double[][] sums = new double[labellings.length][];
+		for (int l = 0; l < labellings.length; l++) {
+			aggregators[l] = new Aggregator();
+			sums[l] = new double[labellings[l].getLabels().size()];
+		}
+		boolean[] sample = drawSample(data.size(), rand);
+		ExecutionMonitor progress = exec.createSubProgress(0.8);
+
+		for (int i = 0; i < data.size(); i++) {
+			if (sample[i]) {
+				progress.checkCanceled();
+				progress.setProgress((double) i / data.size(), "Processing row: " + i);
+				for (double[] clusterSums : sums) {
+					Arrays.fill(clusterSums, 0.0);
+				}
+				for (int j = 0; j < data.size(); j++) {
+					double dist = data.distance(i, j);
+					for (int l = 0; l < labellings.length; l++) {
+						sums[l][labellings[l].getCluster(j)] += dist;
+					}
+				}
+
+				// Only the coefficients of the first cluster column are kept per row.
+				for (int l = 0; l < labellings.length; l++) {
+					int closestCluster = closestCluster(labellings[l], i, sums[l]);
+					double silhouetteCoefficient = silhouetteFromSums(labellings[l], i, sums[l], closestCluster);
+					aggregators[l].addDistance(silhouetteCoefficient);
+					if (l == 0) {
+						values.set(i, silhouetteCoefficient);
+						summary.add(data.getCluster(i), silhouetteCoefficient, closestCluster);
+					}
+				}
+			}
+		}
+
+		setClusterSizes(summary, data);
+		SilhouetteEstimate[] estimates = new SilhouetteEstimate[labellings.length];
+		for (int l = 0; l < labellings.length; l++) {
+			estimates[l] = aggregators[l].createEstimate(data.size());
+		}
+		return estimates;
+	}
+
+	/**
+	 * Computes the exact Silhouette Coefficient under the squared Euclidean
+	 * distance. The mean squared distance from a point x to a cluster C equals
+	 * ||x - c||^2 + S / |C|, where c is the centroid and S the scatter of the
+	 * cluster. Therefore, the first pass collects the statistics of each cluster
+	 * and the second pass computes the coefficient of each point in O(k * d)
+	 * without any pairwise distances. Random sampling is not applied, since the
+	 * computation is linear in the number of rows.
+	 * 
+	 * @param table               The input table.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param values              The array the coefficient of each row is stored
+	 *                            in, NaN for the rows that are not evaluated.
+	 * @param summary             The per-cluster summary of the coefficients.
+	 * @param exec                The execution context.
+	 * @return The overall coefficient.
+	 * @throws CanceledExecutionException
+	 */
+	private SilhouetteEstimate computeSquaredEuclideanSilhouette(final BufferedDataTable table,
+			final int clusterNameColumnID, final int[] includeColumnID, final LargeDoubleArray values,
+			final ClusterSummary summary, final ExecutionContext exec) throws CanceledExecutionException {
+
+		Aggregator overallSC = new Aggregator();
+		ClusterLabels labels = new ClusterLabels();
+		ClusterStatistics statistics = new ClusterStatistics(includeColumnID.length);
+		double[] point = new double[includeColumnID.length];
+		double size = table.size();
+		long i = 0;
+
+		// First pass: the size, centroid and scatter of each cluster.
+		for (DataRow row : table) {
+			exec.checkCanceled();
+			exec.setProgress(i++ / size * 0.45, "Collecting cluster statistics.");
+			readPoint(row, includeColumnID, point);
+			statistics.add(labels.intern(row.getCell(clusterNameColumnID).toString()), point);
+		}
+
+		if (labels.size() < 2) {
+			throw new IllegalStateException(
+					"There have to be at least two clusters for Silhouette Coefficient to be computed.");
+		}
+
+		// Second pass: the coefficient of each point from the cluster statistics.
+		i = 0;
+		for (DataRow row : table) {
+			exec.checkCanceled();
+			exec.setProgress(0.45 + i / size * 0.45, "Processing row: " + i);
+			readPoint(row, includeColumnID, point);
+			int cluster = labels.getID(row.getCell(clusterNameColumnID).toString());
+
+			double silhouetteCoefficient = 0.0;
+			int closestCluster = -1;
+			long clusterSize = statistics.getCount(cluster);
+			// The coefficient of a point in a singleton cluster is defined as 0.
+			if (clusterSize > 1) {
+				double currentClusterDist = statistics.sumOfSquaredDistances(point, cluster) / (clusterSize - 1);
+				double closestClusterDist = Double.MAX_VALUE;
+				for (int otherCluster = 0; otherCluster < labels.size(); otherCluster++) {
+					if (otherCluster != cluster) {
+						double dist = statistics.sumOfSquaredDistances(point, otherCluster)
+								/ statistics.getCount(otherCluster);
+						if (closestClusterDist > dist) {
+							closestClusterDist = dist;
+							closestCluster = otherCluster;
+						}
+					}
+				}
+				silhouetteCoefficient = silhouette(currentClusterDist, closestClusterDist);
+			}
+			values.set(i++, silhouetteCoefficient);
+			overallSC.addDistance(silhouetteCoefficient);
+			summary.add(cluster, silhouetteCoefficient, closestCluster);
+		}
+
+		summary.setLabels(labels);
+		for (int cluster = 0; cluster < labels.size(); cluster++) {
+			summary.setSize(cluster, statistics.getCount(cluster));
+		}
+		return overallSC.createEstimate(table.size());
+	}
+
+	/**
+	 * Computes the exact Silhouette Coefficient under the Euclidean distance, but
+	 * avoids scanning every other cluster for the closest cluster distance b. By
+	 * the triangle inequality, the mean distance from x to a cluster lies between
+	 * ||x - c|| and ||x - c|| + r, where c is the centroid and r the mean distance
+	 * of the cluster points to the centroid. The other clusters are scanned in
+	 * the order of their lower bounds, and the scan stops as soon as the lower
+	 * bound exceeds the closest mean distance found so far, or the smallest upper
+	 * bound.
+	 * 
+	 * @param table               The input table.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param values              The array the coefficient of each row is stored
+	 *                            in, NaN for the rows that are not evaluated.
+	 * @param summary             The per-cluster summary of the coefficients.
+	 * @param rand                The random generator used for sampling.
+	 * @param exec                The execution context.
+	 * @return The overall coefficient.
+	 * @throws CanceledExecutionException
+	 */
+	private SilhouetteEstimate computePrunedSilhouette(final BufferedDataTable table, final int clusterNameColumnID,
+			final int[] includeColumnID, final LargeDoubleArray values, final ClusterSummary summary,
+			final Random rand, final ExecutionContext exec) throws CanceledExecutionException {
+
+		PointData data = PointData.read(table, clusterNameColumnID, -1, includeColumnID, false,
+				exec.createSubProgress(0.1));
+		int numClusters = data.getLabels().size();
+		if (numClusters < 2) {
+			throw new IllegalStateException(
+					"There have to be at least two clusters for Silhouette Coefficient to be computed.");
+		}
+		int[][] members = data.getMembers();
+
+		// The centroids and the mean radii of the clusters.
+		ClusterStatistics statistics = new ClusterStatistics(includeColumnID.length);
+		for (int i = 0; i < data.size(); i++) {
+			statistics.add(data.getCluster(i), data.getPoint(i));
+		}
+		double[] radii = new double[numClusters];
+		for (int i = 0; i < data.size(); i++) {
+			radii[data.getCluster(i)] += Math.sqrt(statistics.squaredDistanceToCentroid(data.getPoint(i),
+					data.getCluster(i)));
+		}
+		for (int c = 0; c < numClusters; c++) {
+			radii[c] /= members[c].length;
+		}
+
+		Aggregator overallSC = new Aggregator();
+		boolean[] sample = drawSample(data.size(), rand);
+		double[] lowerBounds = new double[numClusters];
+		Integer[] order = new Integer[numClusters - 1];
+		ExecutionMonitor progress = exec.createSubProgress(0.8);
+
+		for (int i = 0; i < data.size(); i++) {
+			if (!sample[i]) {
+				continue;
+			}
+			progress.checkCanceled();
+			progress.setProgress((double) i / data.size(), "Processing row: " + i);
+
+			int cluster = data.getCluster(i);
+			int[] ownMembers = members[cluster];
+			// The coefficient of a point in a singleton cluster is defined as 0.
+			if (ownMembers.length < 2) {
+				values.set(i, 0.0);
+				overallSC.addDistance(0.0);
+				summary.add(cluster, 0.0, -1);
+				continue;
+			}
+			double currentClusterDist = 0.0;
+			for (int j : ownMembers) {
+				currentClusterDist += data.distance(i, j);
+			}
+			currentClusterDist /= ownMembers.length - 1;
+
+			double upperBound = Double.MAX_VALUE;
+			int n = 0;
+			for (int c = 0; c < numClusters; c++) {
+				if (c != cluster) {
+					lowerBounds[c] = Math.sqrt(statistics.squaredDistanceToCentroid(data.getPoint(i), c));
+					upperBound = Math.min(upperBound, lowerBounds[c] + radii[c]);
+					order[n++] = c;
+				}
+			}
+			Arrays.sort(order, (c1, c2) -> Double.compare(lowerBounds[c1], lowerBounds[c2]));
+
+			double closestClusterDist = Double.MAX_VALUE;
+			int closestCluster = -1;
+			for (int c : order) {
+				if (lowerBounds[c] >= closestClusterDist || lowerBounds[c] > upperBound) {
+					break;
+				}
+				double dist = 0.0;
+				for (int j : members[c]) {
+					dist += data.distance(i, j);
+				}
+				dist /= members[c].length;
+				if (closestClusterDist > dist) {
+					closestClusterDist = dist;
+					closestCluster = c;
+				}
+			}
+			double silhouetteCoefficient = silhouette(currentClusterDist, closestClusterDist);
+			values.set(i, silhouetteCoefficient);
+			overallSC.addDistance(silhouetteCoefficient);
+			summary.add(cluster, silhouetteCoefficient, closestCluster);
+		}
+
+		setClusterSizes(summary, data);
+		return overallSC.createEstimate(data.size());
+	}
+
+	/**
+	 * Estimates the Silhouette Coefficient from a fixed number of randomly chosen
+	 * points per cluster. The sample is drawn in a single pass with a reservoir
+	 * for each cluster, so small clusters are always represented. The sampled
+	 * points are compared only with the sampled points of each cluster, which
+	 * bounds the cost by the number of clusters and the sample size instead of
+	 * the size of the table. The overall coefficient is the mean of the cluster
+	 * means weighted by the cluster sizes, and its standard error follows from
+	 * the central limit theorem for stratified samples.
+	 * 
+	 * @param table               The input table.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param values              The array the coefficient of each row is stored
+	 *                            in, NaN for the rows that are not evaluated.
+	 * @param summary             The per-cluster summary of the coefficients.
+	 * @param rand                The random generator used for sampling.
+	 * @param exec                The execution context.
+	 * @return The estimated overall coefficient.
+	 * @throws CanceledExecutionException
+	 */
+	private SilhouetteEstimate computeStratifiedSilhouette(final BufferedDataTable table,
+			final int clusterNameColumnID, final int[] includeColumnID, final LargeDoubleArray values,
+			final ClusterSummary summary, final Random rand, final ExecutionContext exec) throws CanceledExecutionException {
+
+		if (table.size() > Integer.MAX_VALUE) {
+			throw new IllegalStateException(
+					"Tables with more than " + Integer.MAX_VALUE + " rows are not supported in this mode.");
+		}
+
+		int pointsPerCluster = m_pointsPerCluster.getIntValue();
+		ClusterLabels labels = new ClusterLabels();
+		ArrayList<Reservoir> reservoirs = new ArrayList<Reservoir>();
+		double[] point = new double[includeColumnID.length];
+		int size = (int) table.size();
+		int i = 0;
+
+		// Draw a fixed-size sample from each cluster in a single pass.
+		for (DataRow row : table) {
+			exec.checkCanceled();
+			exec.setProgress(0.3 * i / size, "Sampling row: " + i);
+			readPoint(row, includeColumnID, point);
+			int cluster = labels.intern(row.getCell(clusterNameColumnID).toString());
+			if (cluster == reservoirs.size()) {
+				reservoirs.add(new Reservoir(pointsPerCluster));
+			}
+			reservoirs.get(cluster).add(point, i, rand);
+			i++;
+		}
+
+		int numClusters = labels.size();
+		if (numClusters < 2) {
+			throw new IllegalStateException(
+					"There have to be at least two clusters for Silhouette Coefficient to be computed.");
+		}
+
+		double overall = 0.0;
+		double variance = 0.0;
+		long evaluated = 0;
+
+		for (int cluster = 0; cluster < numClusters; cluster++) {
+			exec.checkCanceled();
+			exec.setProgress(0.3 + 0.6 * cluster / numClusters, "Processing cluster: " + cluster);
+
+			Reservoir own = reservoirs.get(cluster);
+			Aggregator clusterSC = new Aggregator();
+			for (int p = 0; p < own.getSampleSize(); p++) {
+				double[] current = own.getPoint(p);
+				double silhouetteCoefficient = 0.0;
+				int closestCluster = -1;
+				// The coefficient of a point in a singleton cluster is defined as 0.
+				if (own.getSampleSize() > 1) {
+					double currentClusterDist = 0.0;
+					for (int q = 0; q < own.getSampleSize(); q++) {
+						currentClusterDist += PointData.euclideanDistance(current, own.getPoint(q));
+					}
+					currentClusterDist /= own.getSampleSize() - 1;
+
+					double closestClusterDist = Double.MAX_VALUE;
+					for (int otherCluster = 0; otherCluster < numClusters; otherCluster++) {
+						if (otherCluster != cluster) {
+							Reservoir other = reservoirs.get(otherCluster);
+							double dist = 0.0;
+							for (int q = 0; q < other.getSampleSize(); q++) {
+								dist += PointData.euclideanDistance(current, other.getPoint(q));
+							}
+							dist /= other.getSampleSize();
+							if (closestClusterDist > dist) {
+								closestClusterDist = dist;
+								closestCluster = otherCluster;
+							}
+						}
+					}
+					silhouetteCoefficient = silhouette(currentClusterDist, closestClusterDist);
+				}
+				values.set(own.getRow(p), silhouetteCoefficient);
+				clusterSC.addDistance(silhouetteCoefficient);
+				summary.add(cluster, silhouetteCoefficient, closestCluster);
+			}
+			summary.setSize(cluster, own.getClusterSize());
+
+			SilhouetteEstimate clusterEstimate = clusterSC.createEstimate(own.getClusterSize());
+			double weight = (double) own.getClusterSize() / size;
+			overall += weight * clusterEstimate.getValue();
+			variance += weight * weight * clusterEstimate.getStandardError() * clusterEstimate.getStandardError();
+			evaluated += own.getSampleSize();
+		}
+
+		summary.setLabels(labels);
+		return new SilhouetteEstimate(overall, Math.sqrt(variance), evaluated);
+	}
+
+	/**
+	 * Estimates the Silhouette Coefficient by evaluating the points in random
+	 * order and in batches. After each batch the running mean and its standard
+	 * error are updated, and the computation stops as soon as the half-width of
+	 * the 95% confidence interval drops below the tolerance or the time limit is
+	 * reached. At least {@link #MIN_ANYTIME_POINTS} points are evaluated, even
+	 * if the time limit is reached before. Each evaluated point is compared with
+	 * every other point, so the coefficients of the evaluated points are exact.
+	 * 
+	 * @param table               The input table.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param distanceColumnID    The index of the column with the distance
+	 *                            matrix, or -1 to use the Euclidean distance.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param values              The array the coefficient of each row is stored
+	 *                            in, NaN for the rows that are not evaluated.
+	 * @param summary             The per-cluster summary of the coefficients.
+	 * @param rand                The random generator used for the order of the
+	 *                            points.
+	 * @param exec                The execution context.
+	 * @return The estimated overall coefficient.
+	 * @throws CanceledExecutionException
+	 */
+	private SilhouetteEstimate computeAnytimeSilhouette(final BufferedDataTable table, final int clusterNameColumnID,
+			final int distanceColumnID, final int[] includeColumnID, final LargeDoubleArray values,
+			final ClusterSummary summary, final Random rand, final ExecutionContext exec) throws CanceledExecutionException {
+
+		long deadline = m_timeLimit.getIntValue() > 0
+				? System.nanoTime() + TimeUnit.SECONDS.toNanos(m_timeLimit.getIntValue())
+				: Long.MAX_VALUE;
+
+		PointData data = PointData.read(table, clusterNameColumnID, distanceColumnID, includeColumnID, false,
+				exec.createSubProgress(0.1));
+		int numClusters = data.getLabels().size();
+		if (numClusters < 2) {
+			throw new IllegalStateException(
+					"There have to be at least two clusters for Silhouette Coefficient to be computed.");
+		}
+
+		// A random permutation of the points.
+		int[] order = new int[data.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		for (int i = order.length - 1; i > 0; i--) {
+			int j = rand.nextInt(i + 1);
+			int temp = order[i];
+			order[i] = order[j];
+			order[j] = temp;
+		}
+
+		Aggregator overallSC = new Aggregator();
+		SilhouetteEstimate estimate = overallSC.createEstimate(data.size());
+		double[] sums = new double[numClusters];
+		double tolerance = m_tolerance.getDoubleValue();
+		int batchSize = m_batchSize.getIntValue();
+		ExecutionMonitor progress = exec.createSubProgress(0.8);
+
+		int minPoints = Math.min(order.length, MIN_ANYTIME_POINTS);
+		int evaluated = 0;
+		boolean timeOut = false;
+		while (evaluated < order.length && !timeOut) {
+			int batchEnd = (int) Math.min(order.length, (long) evaluated + batchSize);
+			for (; evaluated < batchEnd; evaluated++) {
+				progress.checkCanceled();
+				if (evaluated >= minPoints && System.nanoTime() > deadline) {
+					timeOut = true;
+					break;
+				}
+				int i = order[evaluated];
+				sumDistances(data, i, sums);
+				int closestCluster = closestCluster(data, i, sums);
+				double silhouetteCoefficient = silhouetteFromSums(data, i, sums, closestCluster);
+				values.set(i, silhouetteCoefficient);
+				overallSC.addDistance(silhouetteCoefficient);
+				summary.add(data.getCluster(i), silhouetteCoefficient, closestCluster);
+			}
+
+			estimate = overallSC.createEstimate(data.size());
+			progress.setProgress((double) evaluated / order.length,
+					"Evaluated points: " + evaluated + ", confidence half-width: " + estimate.getHalfWidth());
+			if (evaluated >= minPoints && estimate.getHalfWidth() <= tolerance) {
+				break;
+			}
+		}
+
+		if (timeOut) {
+			setWarningMessage("The time limit was reached after " + evaluated + " points, the confidence half-width is "
+					+ estimate.getHalfWidth() + ".");
+		}
+
+		setClusterSizes(summary, data);
+		return estimate;
+	}
+
+	/**
+	 * Computes the exact Silhouette Coefficient of every point for tables whose
+	 * coordinates do not fit into the heap. The coordinates are written column by
+	 * column to a memory-mapped temporary file, and the distances are computed
+	 * for pairs of row tiles that are loaded into fixed-size buffers. The sums of
+	 * the distances of each point to each cluster are accumulated per tile and
+	 * added to an n * k matrix, which is memory-mapped as well if it is too large
+	 * for the heap. Each distance is computed once for both of its points.
+	 * 
+	 * @param table               The input table.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param values              The array the coefficient of each row is stored
+	 *                            in, NaN for the rows that are not evaluated.
+	 * @param summary             The per-cluster summary of the coefficients.
+	 * @param exec                The execution context.
+	 * @return The overall coefficient.
+	 * @throws CanceledExecutionException
+	 * @throws IOException                If the temporary files cannot be
+	 *                                    created.
+	 */
+	private SilhouetteEstimate computeOutOfCoreSilhouette(final BufferedDataTable table,
+			final int clusterNameColumnID, final int[] includeColumnID, final LargeDoubleArray values,
+			final ClusterSummary summary, final ExecutionContext exec) throws CanceledExecutionException, IOException {
+
+		if (table.size() > Integer.MAX_VALUE) {
+			throw new IllegalStateException(
+					"Tables with more than " + Integer.MAX_VALUE + " rows are not supported in this mode.");
+		}
+		int size = (int) table.size();
+		int dimensions = includeColumnID.length;
+		int[] clusters = new int[size];
+		ClusterLabels labels = new ClusterLabels();
+
+		try (LargeDoubleArray points = LargeDoubleArray.create((long) size * dimensions, false)) {
+
+			// The coordinates are stored column-major, so a tile is read sequentially
+			// from each column.
+			ExecutionMonitor readProgress = exec.createSubProgress(0.1);
+			double[] point = new double[dimensions];
+			int i = 0;
+			for (DataRow row : table) {
+				readProgress.checkCanceled();
+				readProgress.setProgress((double) i / size, "Reading row: " + i);
+				readPoint(row, includeColumnID, point);
+				for (int dim = 0; dim < dimensions; dim++) {
+					points.set((long) dim * size + i, point[dim]);
+				}
+				clusters[i] = labels.intern(row.getCell(clusterNameColumnID).toString());
+				i++;
+			}
+
+			int numClusters = labels.size();
+			if (numClusters < 2) {
+				throw new IllegalStateException(
+						"There have to be at least two clusters for Silhouette Coefficient to be computed.");
+			}
+			long[] counts = new long[numClusters];
+			for (int cluster : clusters) {
+				counts[cluster]++;
+			}
+
+			long accumulatorSize = (long) size * numClusters;
+			boolean onHeap = accumulatorSize * Double.BYTES <= Runtime.getRuntime().maxMemory() / 4;
+			try (LargeDoubleArray sums = LargeDoubleArray.create(accumulatorSize, onHeap)) {
+				accumulateTiles(points, clusters, numClusters, dimensions, sums, exec.createSubProgress(0.7));
+
+				Aggregator overallSC = new Aggregator();
+				ExecutionMonitor progress = exec.createSubProgress(0.1);
+				double[] clusterSums = new double[numClusters];
+				for (i = 0; i < size; i++) {
+					progress.checkCanceled();
+					progress.setProgress((double) i / size, "Processing row: " + i);
+					int cluster = clusters[i];
+					double silhouetteCoefficient = 0.0;
+					int closestCluster = -1;
+					// The coefficient of a point in a singleton cluster is defined as 0.
+					if (counts[cluster] > 1) {
+						for (int c = 0; c < numClusters; c++) {
+							clusterSums[c] = sums.get((long) i * numClusters + c);
+						}
+						double currentClusterDist = clusterSums[cluster] / (counts[cluster] - 1);
+						double closestClusterDist = Double.MAX_VALUE;
+						for (int c = 0; c < numClusters; c++) {
+							if (c != cluster && closestClusterDist > clusterSums[c] / counts[c]) {
+								closestClusterDist = clusterSums[c] / counts[c];
+								closestCluster = c;
+							}
+						}
+						silhouetteCoefficient = silhouette(currentClusterDist, closestClusterDist);
+					}
+					values.set(i, silhouetteCoefficient);
+					overallSC.addDistance(silhouetteCoefficient);
+					summary.add(cluster, silhouetteCoefficient, closestCluster);
+				}
+
+				summary.setLabels(labels);
+				for (int cluster = 0; cluster < numClusters; cluster++) {
+					summary.setSize(cluster, counts[cluster]);
+				}
+				return overallSC.createEstimate(size);
+			}
+		}
+	}
+
+	/**
+	 * Sums the distances of each point to the points of each cluster. The rows
+	 * are split into tiles, and for each pair of tiles both are loaded into
+	 * buffers and their sums are accumulated in per-tile arrays before being
+	 * added to the matrix. A row takes d coordinates and k sums in each of the
+	 * two tiles, and the tiles are sized so that all four buffers together fit
+	 * into {@link #TILE_BYTES}.
+	 * 
+	 * @param points      The coordinates, stored column-major.
+	 * @param clusters    The ID of the cluster of each point.
+	 * @param numClusters The number of clusters.
+	 * @param dimensions  The number of coordinates of each point.
+	 * @param sums        The n * k matrix the sums are added to.
+	 * @param exec        The execution monitor.
+	 * @throws CanceledExecutionException
+	 * @throws IllegalStateException      If not even a single row fits into the
+	 *                                    buffers.
+	 */
+	private static void accumulateTiles(final LargeDoubleArray points, final int[] clusters, final int numClusters,
+			final int dimensions, final LargeDoubleArray sums, final ExecutionMonitor exec)
+			throws CanceledExecutionException {
+
+		int size = clusters.length;
+		long rowBytes = (long) Double.BYTES * 2 * ((long) dimensions + numClusters);
+		if (rowBytes > TILE_BYTES) {
+			throw new IllegalStateException("A row of the out-of-core mode needs " + rowBytes
+					+ " bytes of tile buffers for " + dimensions + " included columns and " + numClusters
+					+ " clusters, but only " + TILE_BYTES + " bytes are available. Include fewer columns or use "
+					+ "the cluster statistics mode.");
+		}
+		int tileSize = (int) Math.max(1, Math.min(size, TILE_BYTES / rowBytes));
+		int numTiles = (size + tileSize - 1) / tileSize;
+		double[] tileI = new double[tileSize * dimensions];
+		double[] tileJ = new double[tileSize * dimensions];
+		double[] localI = new double[tileSize * numClusters];
+		double[] localJ = new double[tileSize * numClusters];
+		long tilePairs = (long) numTiles * (numTiles + 1) / 2;
+		long processed = 0;
+
+		for (int ti = 0; ti < numTiles; ti++) {
+			int startI = ti * tileSize;
+			int endI = Math.min(size, startI + tileSize);
+			loadTile(points, size, dimensions, startI, endI, tileI);
+			Arrays.fill(localI, 0.0);
+
+			for (int tj = ti; tj < numTiles; tj++) {
+				exec.checkCanceled();
+				exec.setProgress((double) processed++ / tilePairs, "Processing tile " + ti + " with tile " + tj);
+				int startJ = tj * tileSize;
+				int endJ = Math.min(size, startJ + tileSize);
+				boolean diagonal = ti == tj;
+				double[] other = diagonal ? tileI : tileJ;
+				double[] otherSums = diagonal ? localI : localJ;
+				if (!diagonal) {
+					loadTile(points, size, dimensions, startJ, endJ, tileJ);
+					Arrays.fill(localJ, 0.0);
+				}
+
+				for (int i = startI; i < endI; i++) {
+					int offsetI = (i - startI) * dimensions;
+					int sumsI = (i - startI) * numClusters;
+					for (int j = diagonal ? i + 1 : startJ; j < endJ; j++) {
+						int offsetJ = (j - startJ) * dimensions;
+						double dist = 0.0;
+						for (int dim = 0; dim < dimensions; dim++) {
+							double temp = other[offsetJ + dim] - tileI[offsetI + dim];
+							dist += temp * temp;
+						}
+						dist = Math.sqrt(dist);
+						localI[sumsI + clusters[j]] += dist;
+						otherSums[(j - startJ) * numClusters + clusters[i]] += dist;
+					}
+				}
+
+				if (!diagonal) {
+					flushTile(localJ, startJ, endJ, numClusters, sums);
+				}
+			}
+			flushTile(localI, startI, endI, numClusters, sums);
+		}
+	}
+
+	/**
+	 * Loads the coordinates of a range of rows into a row-major buffer.
+	 * 
+	 * @param points     The coordinates, stored column-major.
+	 * @param size       The number of points.
+	 * @param dimensions The number of coordinates of each point.
+	 * @param start      The first row of the tile.
+	 * @param end        The row after the last row of the tile.
+	 * @param tile       The buffer the coordinates are written to.
+	 */
+	private static void loadTile(final LargeDoubleArray points, final int size, final int dimensions,
+			final int start, final int end, final double[] tile) {
+		for (int dim = 0; dim < dimensions; dim++) {
+			long column = (long) dim * size;
+			for (int r = start; r < end; r++) {
+				tile[(r - start) * dimensions + dim] = points.get(column + r);
+			}
+		}
+	}
+
+	/**
+	 * Adds the distance sums of a tile to the matrix of all sums.
+	 * 
+	 * @param local       The sums of the rows of the tile.
+	 * @param start       The first row of the tile.
+	 * @param end         The row after the last row of the tile.
+	 * @param numClusters The number of clusters.
+	 * @param sums        The n * k matrix the sums are added to.
+	 */
+	private static void flushTile(final double[] local, final int start, final int end, final int numClusters,
+			final LargeDoubleArray sums) {
+		for (int r = start; r < end; r++) {
+			for (int c = 0; c < numClusters; c++) {
+				sums.add((long) r * numClusters + c, local[(r - start) * numClusters + c]);
+			}
+		}
+	}
+
+	/**
+	 * Computes the exact Silhouette Coefficient of every point from the sum of
+	 * its distances to the points of each cluster. The sums of the last execution
+	 * are kept, also across saving the workflow, so if the same points are
+	 * evaluated again with a changed cluster allocation, only the distances to
+	 * the points that moved to another cluster are computed. This takes
+	 * O(changed * n) instead of O(n^2) time. If there are no sums of the same
+	 * points, they are computed from all pairwise distances.
+	 * 
+	 * @param table               The input table.
+	 * @param clusterNameColumnID The index of the column with the cluster names.
+	 * @param includeColumnID     The indices of the columns with the coordinates.
+	 * @param values              The array the coefficient of each row is stored
+	 *                            in, NaN for the rows that are not evaluated.
+	 * @param summary             The per-cluster summary of the coefficients.
+	 * @param exec                The execution context.
+	 * @return The overall coefficient.
+	 * @throws CanceledExecutionException
+	 */
+	private SilhouetteEstimate computeIncrementalSilhouette(final BufferedDataTable table,
+			final int clusterNameColumnID, final int[] includeColumnID, final LargeDoubleArray values,
+			final ClusterSummary summary, final ExecutionContext exec) throws CanceledExecutionException {
+
+		PointData data = PointData.read(table, clusterNameColumnID, -1, includeColumnID, true,
+				exec.createSubProgress(0.1));
+		ClusterLabels labels = data.getLabels();
+		if (labels.size() < 2) {
+			throw new IllegalStateException(
+					"There have to be at least two clusters for Silhouette Coefficient to be computed.");
+		}
+
+		long checksum = checksum(table, data);
+		double[][] sums = new double[data.size()][labels.size()];
+		ExecutionMonitor progress = exec.createSubProgress(0.7);
+
+		if (cache != null && cache.matches(checksum, data.size())) {
+			// The cached sums are moved to the IDs of the current clusters, the sums
+			// of clusters that no longer exist are dropped.
+			String[] cachedNames = cache.getClusterNames();
+			int[] newID = new int[cachedNames.length];
+			for (int c = 0; c < cachedNames.length; c++) {
+				newID[c] = labels.getID(cachedNames[c]);
+			}
+			double[][] cachedSums = cache.getSums();
+			for (int i = 0; i < data.size(); i++) {
+				for (int c = 0; c < cachedNames.length; c++) {
+					if (newID[c] >= 0) {
+						sums[i][newID[c]] = cachedSums[i][c];
+					}
+				}
+			}
+
+			int moved = 0;
+			for (int j = 0; j < data.size(); j++) {
+				progress.checkCanceled();
+				progress.setProgress((double) j / data.size(), "Updating row: " + j + ", moved points: " + moved);
+				int oldCluster = newID[cache.getCluster(j)];
+				int cluster = data.getCluster(j);
+				if (oldCluster != cluster) {
+					for (int i = 0; i < data.size(); i++) {
+						double dist = data.distance(i, j);
+						if (oldCluster >= 0) {
+							sums[i][oldCluster] -= dist;
+						}
+						sums[i][cluster] += dist;
+					}
+					moved++;
+				}
+			}
+		} else {
+			for (int i = 0; i < data.size(); i++) {
+				progress.checkCanceled();
+				progress.setProgress((double) i / data.size(), "Processing row: " + i);
+				for (int j = i + 1; j < data.size(); j++) {
+					double dist = data.distance(i, j);
+					sums[i][data.getCluster(j)] += dist;
+					sums[j][data.getCluster(i)] += dist;
+				}
+			}
+		}
+
+		Aggregator overallSC = new Aggregator();
+		for (int i = 0; i < data.size(); i++) {
+			exec.checkCanceled();
+			int closestCluster = closestCluster(data, i, sums[i]);
+			double silhouetteCoefficient = silhouetteFromSums(data, i, sums[i], closestCluster);
+			values.set(i, silhouetteCoefficient);
+			overallSC.addDistance(silhouetteCoefficient);
+			summary.add(data.getCluster(i), silhouetteCoefficient, closestCluster);
+		}
+
+		int[] clusterIDs = new int[data.size()];
+		for (int i = 0; i < data.size(); i++) {
+			clusterIDs[i] = data.getCluster(i);
+		}
+		String[] clusterNames = new String[labels.size()];
+		for (int c = 0; c < clusterNames.length; c++) {
+			clusterNames[c] = labels.getName(c);
+		}
+		cache = new SilhouetteCache(checksum, clusterIDs, clusterNames, sums);
+
+		setClusterSizes(summary, data);
+		return overallSC.createEstimate(data.size());
+	}
+
+	/**
+	 * Computes a checksum of the row keys and coordinates, so that cached
+	 * distance sums are only reused for the same points.
+	 * 
+	 * @param table The input table.
+	 * @param data  The points of the table.
+	 * @return The checksum.
+	 */
+	private static long checksum(final BufferedDataTable table, final PointData data) {
+
+		long checksum = 17;
+		int i = 0;
+		for (DataRow row : table) {
+			checksum = 31 * checksum + row.getKey().getString().hashCode();
+			for (double value : data.getPoint(i)) {
+				checksum = 31 * checksum + Double.doubleToLongBits(value);
+			}
+			i++;
+		}
+		return checksum;
+	}
+
+	/**
+	 * Sums the distances of one point to the points of each cluster by comparing
+	 * it with every other point.
+	 * 
+	 * @param data The points.
+	 * @param i    The index of the point.
+	 * @param sums An array with one entry per cluster that is reused for summing
+	 *             the distances.
+	 */
+	private static void sumDistances(final PointData data, final int i, final double[] sums) {
+
+		Arrays.fill(sums, 0.0);
+		// The sums are not needed for a point in a singleton cluster.
+		if (data.getClusterSize(data.getCluster(i)) > 1) {
+			for (int j = 0; j < data.size(); j++) {
+				sums[data.getCluster(j)] += data.distance(i, j);
+			}
+		}
+	}
+
+	/**
+	 * Finds the closest other cluster of one point from the sums of its distances
+	 * to the points of each cluster.
+	 * 
+	 * @param data The points.
+	 * @param i    The index of the point.
+	 * @param sums The sum of the distances to the points of each cluster.
+	 * @return The ID of the closest other cluster, or -1 if the point is in a
+	 *         singleton cluster.
+	 */
+	private static int closestCluster(final PointData data, final int i, final double[] sums) {
+
+		int cluster = data.getCluster(i);
+		if (data.getClusterSize(cluster) < 2) {
+			return -1;
+		}
+		double closestClusterDist = Double.MAX_VALUE;
+		int closestCluster = -1;
+		for (int c = 0; c < sums.length; c++) {
+			if (c != cluster && closestClusterDist > sums[c] / data.getClusterSize(c)) {
+				closestClusterDist = sums[c] / data.getClusterSize(c);
+				closestCluster = c;
+			}
+		}
+		return closestCluster;
+	}
+
+	/**
+	 * Computes the exact Silhouette Coefficient of one point from the sums of its
+	 * distances to the points of each cluster.
+	 * 
+	 * @param data           The points.
+	 * @param i              The index of the point.
+	 * @param sums           The sum of the distances to the points of each
+	 *                       cluster.
+	 * @param closestCluster The ID of the closest other cluster, or -1 if the
+	 *                       point is in a singleton cluster.
+	 * @return The coefficient of the point.
+	 */
+	private static double silhouetteFromSums(final PointData data, final int i, final double[] sums,
+			final int closestCluster) {
+
+		// The coefficient of a point in a singleton cluster is defined as 0.
+		if (closestCluster < 0) {
+			return 0.0;
+		}
+		int cluster = data.getCluster(i);
+		double currentClusterDist = sums[cluster] / (data.getClusterSize(cluster) - 1);
+		return silhouette(currentClusterDist, sums[closestCluster] / data.getClusterSize(closestCluster));
+	}
+
+	/**
+	 * Stores the cluster names and sizes of the points in the summary.
+	 * 
+	 * @param summary The per-cluster summary of the coefficients.
+	 * @param data    The points.
+	 */
+	private static void setClusterSizes(final ClusterSummary summary, final PointData data) {
+		summary.setLabels(data.getLabels());
+		for (int cluster = 0; cluster < data.getLabels().size(); cluster++) {
+			summary.setSize(cluster, data.getClusterSize(cluster));
+		}
+	}
+
+	/**
+	 * Decides for each row whether it is processed, drawing one random number per
+	 * row in the same way as the pairwise computation.
+	 * 
+	 * @param size The number of rows.
+	 * @param rand The random generator used for sampling.
+	 * @return An array that is true for each row that has been sampled.
+	 */
+	private boolean[] drawSample(final int size, final Random rand) {
+
+		double randomThreshold = m_randomSampling.getBooleanValue() ? m_sampleRate.getDoubleValue() : 1.0;
+		boolean[] sample = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			sample[i] = randomThreshold >= rand.nextDouble();
+		}
+		return sample;
+	}
+
+	/**
+	 * Computes the Silhouette Coefficient of a point from its mean distances.
+	 * 
+	 * @param currentClusterDist The mean distance to the points of its cluster.
+	 * @param closestClusterDist The mean distance to the points of the closest
+	 *                           other cluster.
+	 * @return The coefficient, or 0 if both distances are 0.
+	 */
+	static double silhouette(final double currentClusterDist, final double closestClusterDist) {
+		double max = Math.max(currentClusterDist, closestClusterDist);
+		return max > 0.0 ? (closestClusterDist - currentClusterDist) / max : 0.0;
+	}
+
+	/**
+	 * @return The spec of the column with the coefficient of each row.
+	 */
+	private static DataColumnSpec createSilhouetteColumnSpec() {
+		return new DataColumnSpecCreator("Silhouette Coefficient", DoubleCell.TYPE).createSpec();
+	}
+
+	/**
+	 * Creates a row of the result table.
+	 * 
+	 * @param key      The key of the row.
+	 * @param estimate The estimated overall coefficient.
+	 * @return The row with the value, its standard error, the bounds of the 95%
+	 *         confidence interval and the number of evaluated points.
+	 */
+	private static DataRow createResultRow(final RowKey key, final SilhouetteEstimate estimate) {
+		return new DefaultRow(key, new DoubleCell(estimate.getValue()), new DoubleCell(estimate.getStandardError()),
+				new DoubleCell(estimate.getValue() - estimate.getHalfWidth()),
+				new DoubleCell(estimate.getValue() + estimate.getHalfWidth()), new LongCell(estimate.getEvaluated()));
+	}
+
+	/**
+	 * @param spec The spec of the input table.
+	 * @return The index of the column with the distance matrix, or -1 if the
+	 *         Euclidean distance is computed from the included columns.
+	 */
+	private int getDistanceColumnID(final DataTableSpec spec) {
+		String column = m_distanceColumn.getStringValue();
+		return column == null || column.isEmpty() ? -1 : spec.findColumnIndex(column);
+	}
+
+	/**
+	 * @return The names of the additional cluster columns, which are only
+	 *         evaluated in the pairwise mode.
+	 */
+	private String[] getSweepColumns() {
+		if (!MODE_PAIRWISE.equals(m_mode.getStringValue())) {
+			return new String[0];
+		}
+		return m_sweepColumns.getIncludeList().stream().toArray(String[]::new);
+	}
+
+	/**
+	 * Reads the coordinates of the point from the selected columns of the row.
+	 * 
+	 * @param row             The row to read.
+	 * @param includeColumnID The indices of the columns with the coordinates.
+	 * @param point           The array the coordinates are written to.
+	 */
+	static void readPoint(final DataRow row, final int[] includeColumnID, final double[] point) {
+		for (int j = 0; j < includeColumnID.length; j++) {
+			DataCell cell = row.getCell(includeColumnID[j]);
+			if (cell.isMissing()) {
+				throw new MissingValueException((MissingValue) cell);
+			}
+			point[j] = ((DoubleValue) cell).getDoubleValue();
+		}
+	}
+
+	/**
+	 * Creates the cell with the coefficient of each row, looked up by the index
+	 * of the row. Rows that have not been evaluated get a missing cell.
+	 */
+	private static class SilhouetteCellFactory extends SingleCellFactory {
+
+		private final LargeDoubleArray values;
+
+		SilhouetteCellFactory(final DataColumnSpec newColSpec, final LargeDoubleArray values) {
+			super(newColSpec);
+			this.values = values;
+		}
+
+		@Override
+		public DataCell getCell(final DataRow row, final long rowIndex) {
+			double value = values.get(rowIndex);
+			return Double.isNaN(value) ? DataType.getMissingCell() : new DoubleCell(value);
+		}
+
+		@Override
+		public DataCell getCell(final DataRow row) {
+			throw new IllegalStateException("The coefficients can only be looked up by the row index.");
+		}
+	}
+
+	private class Aggregator {
+		private long count = 0;
+		private double distance = 0.0;
+		private double squaredDistance = 0.0;
+
+		public void addDistance(final double dist) {
+			count++;
+			distance += dist;
+			squaredDistance += dist * dist;
+		}
+
+		public double getMean() {
+			return distance / (double) count;
+		}
+
+		/**
+		 * Creates the estimate of the overall value from the aggregated sample. The
+		 * standard error follows from the central limit theorem and includes the
+		 * finite population correction, so it is 0 if the whole population has been
+		 * aggregated.
+		 * 
+		 * @param populationSize The number of values the sample was drawn from.
+		 * @return The mean of the values and its standard error.
+		 */
+		public SilhouetteEstimate createEstimate(final long populationSize) {
+			double standardError = 0.0;
+			if (count > 1 && count < populationSize) {
+				double mean = getMean();
+				double variance = Math.max(0.0, (squaredDistance - count * mean * mean) / (count - 1));
+				standardError = Math.sqrt((1.0 - (double) count / populationSize) * variance / count);
+			}
+			return new SilhouetteEstimate(getMean(), standardError, count);
+		}
+
+	}
+
+	/**
+	 * A uniform random sample of fixed size from the points of one cluster,
+	 * maintained with reservoir sampling.
+	 */
+	private static class Reservoir {
+		private final double[][] points;
+		private final int[] rows;
+		private int sampleSize = 0;
+		private long clusterSize = 0;
+
+		Reservoir(final int capacity) {
+			points = new double[capacity][];
+			rows = new int[capacity];
+		}
+
+		public void add(final double[] point, final int row, final Random rand) {
+			clusterSize++;
+			int slot;
+			if (sampleSize < points.length) {
+				slot = sampleSize++;
+				points[slot] = new double[point.length];
+			} else {
+				long candidate = (long) (rand.nextDouble() * clusterSize);
+				if (candidate >= points.length) {
+					return;
+				}
+				slot = (int) candidate;
+			}
+			System.arraycopy(point, 0, points[slot], 0, point.length);
+			rows[slot] = row;
+		}
+
+		public double[] getPoint(final int i) {
+			return points[i];
+		}
+
+		public int getRow(final int i) {
+			return rows[i];
+		}
+
+		public int getSampleSize() {
+			return sampleSize;
+		}
+
+		public long getClusterSize() {
+			return clusterSize;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void reset() {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected DataTableSpec[] configure(final DataTableSpec[] inSpecs) throws InvalidSettingsException {
+
+		DataTableSpec inSpec = inSpecs[0];
+		int distanceColumnID = getDistanceColumnID(inSpec);
+		if (distanceColumnID < 0 && m_filterColumns.getIncludeList().isEmpty()) {
+			throw new InvalidSettingsException("No numeric columns selected from input.");
+		}
+		if (m_distanceColumn.getStringValue() != null && !m_distanceColumn.getStringValue().isEmpty()) {
+			if (distanceColumnID < 0 || !inSpec.getColumnSpec(distanceColumnID).getType()
+					.isCompatible(DistanceVectorDataValue.class)) {
+				throw new InvalidSettingsException(
+						"The column \"" + m_distanceColumn.getStringValue() + "\" is not a distance matrix column.");
+			}
+			String mode = m_mode.getStringValue();
+			if (!MODE_PAIRWISE.equals(mode) && !MODE_ANYTIME.equals(mode)) {
+				throw new InvalidSettingsException(
+						"A distance matrix can only be used in the pairwise and in the anytime mode.");
+			}
+		}
+
+		// DataColumnSpec[] colSpecs = new DataColumnSpec[1];
+		// colSpecs[0] = new DataColumnSpecCreator("Silhouette Coefficient",
+		// DoubleCell.TYPE).createSpec();
+		// DataTableSpec outSpec = new DataTableSpec(colSpecs);
+
+		for (String column : m_sweepColumns.getIncludeList()) {
+			if (!inSpec.containsName(column)) {
+				throw new InvalidSettingsException("The cluster column \"" + column + "\" is not in the input.");
+			}
+		}
+		if (!m_sweepColumns.getIncludeList().isEmpty() && !MODE_PAIRWISE.equals(m_mode.getStringValue())) {
+			setWarningMessage("Additional cluster columns are only evaluated in the pairwise mode.");
+		}
+
+		DataColumnSpec newColumnSpec = createSilhouetteColumnSpec();
+		DataTableSpec appendedSpec = new DataTableSpec(newColumnSpec);
+		DataTableSpec outSpec = new DataTableSpec(inSpec, appendedSpec);
+
+		DataTableSpecCreator resulTableSpecCreator = new DataTableSpecCreator();
+		resulTableSpecCreator
+				.addColumns(new DataColumnSpecCreator("Value", DoubleCell.TYPE).createSpec());
+		resulTableSpecCreator
+				.addColumns(new DataColumnSpecCreator("Standard error", DoubleCell.TYPE).createSpec());
+		resulTableSpecCreator
+				.addColumns(new DataColumnSpecCreator("Lower bound (95%)", DoubleCell.TYPE).createSpec());
+		resulTableSpecCreator
+				.addColumns(new DataColumnSpecCreator("Upper bound (95%)", DoubleCell.TYPE).createSpec());
+		resulTableSpecCreator
+				.addColumns(new DataColumnSpecCreator("Points evaluated", LongCell.TYPE).createSpec());
+
+		return new DataTableSpec[] { outSpec, resulTableSpecCreator.createSpec(), ClusterSummary.createSpec() };
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void saveSettingsTo(final NodeSettingsWO settings) {
+
+		m_clusterColumn.saveSettingsTo(settings);
+		m_filterColumns.saveSettingsTo(settings);
+		m_randomState.saveSettingsTo(settings);
+		m_randomSampling.saveSettingsTo(settings);
+		m_sampleRate.saveSettingsTo(settings);
+		m_mode.saveSettingsTo(settings);
+		m_pointsPerCluster.saveSettingsTo(settings);
+		m_batchSize.saveSettingsTo(settings);
+		m_tolerance.saveSettingsTo(settings);
+		m_timeLimit.saveSettingsTo(settings);
+		m_sweepColumns.saveSettingsTo(settings);
+		m_distanceColumn.saveSettingsTo(settings);
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void loadValidatedSettingsFrom(final NodeSettingsRO settings) throws InvalidSettingsException {
+
+		m_clusterColumn.loadSettingsFrom(settings);
+		m_filterColumns.loadSettingsFrom(settings);
+		m_randomSampling.loadSettingsFrom(settings);
+		m_randomState.loadSettingsFrom(settings);
+		m_sampleRate.loadSettingsFrom(settings);
+
+		// Workflows saved before the computation modes were added lack the
+		// following settings, they keep the pairwise computation.
+		m_mode.setStringValue(MODE_PAIRWISE);
+		m_pointsPerCluster.setIntValue(DEFAULT_POINTS_PER_CLUSTER);
+		m_batchSize.setIntValue(DEFAULT_BATCH_SIZE);
+		m_tolerance.setDoubleValue(DEFAULT_TOLERANCE);
+		m_timeLimit.setIntValue(0);
+		m_sweepColumns.setIncludeList(new ArrayList<String>());
+		m_sweepColumns.setExcludeList(new ArrayList<String>());
+		m_distanceColumn.setStringValue("");
+		loadOptionalSettings(m_mode, CFGKEY_MODE, settings);
+		loadOptionalSettings(m_pointsPerCluster, CFGKEY_POINTS_PER_CLUSTER, settings);
+		loadOptionalSettings(m_batchSize, CFGKEY_BATCH_SIZE, settings);
+		loadOptionalSettings(m_tolerance, CFGKEY_TOLERANCE, settings);
+		loadOptionalSettings(m_timeLimit, CFGKEY_TIME_LIMIT, settings);
+		loadOptionalSettings(m_sweepColumns, CFGKEY_SWEEP, settings);
+		loadOptionalSettings(m_distanceColumn, CFGKEY_DISTANCE, settings);
+
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void validateSettings(final NodeSettingsRO settings) throws InvalidSettingsException {
+
+		m_clusterColumn.validateSettings(settings);
+		m_filterColumns.validateSettings(settings);
+		m_randomSampling.validateSettings(settings);
+		m_randomState.validateSettings(settings);
+		m_sampleRate.validateSettings(settings);
+		validateOptionalSettings(m_mode, CFGKEY_MODE, settings);
+		validateOptionalSettings(m_pointsPerCluster, CFGKEY_POINTS_PER_CLUSTER, settings);
+		validateOptionalSettings(m_batchSize, CFGKEY_BATCH_SIZE, settings);
+		validateOptionalSettings(m_tolerance, CFGKEY_TOLERANCE, settings);
+		validateOptionalSettings(m_timeLimit, CFGKEY_TIME_LIMIT, settings);
+		validateOptionalSettings(m_sweepColumns, CFGKEY_SWEEP, settings);
+		validateOptionalSettings(m_distanceColumn, CFGKEY_DISTANCE, settings);
+
+	}
+
+	/**
+	 * Loads a setting that may be missing in older workflows, the model keeps its
+	 * value if it is.
+	 *
+	 * @param model    The model of the setting.
+	 * @param key      The key of the setting.
+	 * @param settings The settings to load from.
+	 * @throws InvalidSettingsException If the setting is present but invalid.
+	 */
+	private static void loadOptionalSettings(final SettingsModel model, final String key,
+			final NodeSettingsRO settings) throws InvalidSettingsException {
+
+		if (settings.containsKey(key)) {
+			model.loadSettingsFrom(settings);
+		}
+	}
+
+	/**
+	 * Validates a setting that may be missing in older workflows.
+	 *
+	 * @param model    The model of the setting.
+	 * @param key      The key of the setting.
+	 * @param settings The settings to validate.
+	 * @throws InvalidSettingsException If the setting is present but invalid.
+	 */
+	private static void validateOptionalSettings(final SettingsModel model, final String key,
+			final NodeSettingsRO settings) throws InvalidSettingsException {
+
+		if (settings.containsKey(key)) {
+			model.validateSettings(settings);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void loadInternals(final File internDir, final ExecutionMonitor exec)
+			throws IOException, CanceledExecutionException {
+
+		cache = SilhouetteCache.load(internDir, exec);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void saveInternals(final File internDir, final ExecutionMonitor exec)
+			throws IOException, CanceledExecutionException {
+
+		if (cache != null) {
+			cache.save(internDir, exec);
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+package org.knime.SilhouetteCoeffiecient;
+
+/**
+ * The overall Silhouette Coefficient together with its standard error. The
+ * standard error is zero if every point has been evaluated, otherwise it
+ * describes the uncertainty caused by sampling.
+ *
+ * @author Rytis Kumpa
+ */
+final class SilhouetteEstimate {
+
+	// The standard normal quantile for a 95% confidence interval.
+	static final double CONFIDENCE_Z = 1.959963984540054;
+
+	private final double value;
+
+	private final double standardError;
+
+	private final long evaluated;
+
+	/**
+	 * @param value         The estimated overall coefficient.
+	 * @param standardError The standard error of the estimate.
+	 * @param evaluated     The number of points the coefficient was computed for.
+	 */
+	SilhouetteEstimate(final double value, final double standardError, final long evaluated) {
+		this.value = value;
+		this.standardError = standardError;
+		this.evaluated = evaluated;
+	}
+
+	/**
+	 * @return The estimated overall coefficient.
+	 */
+	double getValue() {
+		return value;
+	}
+
+	/**
+	 * @return The standard error of the estimate.
+	 */
+	double getStandardError() {
+		return standardError;
+	}
+
+	/**
+	 * @return The half-width of the 95% confidence interval.
+	 */
+	double getHalfWidth() {
+		return CONFIDENCE_Z * standardError;
+	}
+
+	/**
+	 * @return The number of points the coefficient was computed for.
+	 */
+	long getEvaluated() {
+		return evaluated;
+	}
+}